@@ -10,6 +10,9 @@ export default {
   buyItem(marketItemId, request) {
     return api.post(`/market/buy/${marketItemId}`, request)
   },
+  buyBatch(items, mode = 'ALL_OR_NOTHING') {
+    return api.post('/market/buy/batch', { items, mode })
+  },
   cancelListing(marketItemId) {
     return api.delete(`/market/listings/${marketItemId}`)
   },
@@ -18,5 +21,8 @@ export default {
   },
   getPriceEstimate(itemName) {
     return api.get('/market/price-estimate', { params: { itemName } });
+  },
+  getUpdatesSince(since, epoch) {
+    return api.get('/market/updates', { params: { since, epoch }, suppressToast: true });
   }
 };
@@ -12,6 +12,17 @@ export const useMarketStore = defineStore('market', () => {
   const listings = ref([])
   const isConnected = ref(false)
   let stompClient = null
+  // Per-item topic subscriptions for the items the listings on screen belong to
+  const itemSubscriptions = new Map()
+  // Highest update sequence seen; null until the first connect fetched a baseline
+  let lastSeq = null
+  // Updates up to here were covered by the last resync. Frames of several item
+  // topics interleave, so live ones are not compared against lastSeq
+  let resyncedSeq = null
+  // Server event log lastSeq belongs to; a reconnect may land on another node
+  let lastEpoch = null
+  // Frames received while a resync is in flight, applied once it completes
+  let heldFrames = null
 
   /* Pagination State */
   const currentPage = ref(0)
@@ -22,17 +33,22 @@ export const useMarketStore = defineStore('market', () => {
   const connect = () => {
     if (isConnected.value) return
 
-    const socket = new SockJS('http://localhost:8081/ws')
     stompClient = new Client({
-      webSocketFactory: () => socket,
+      // A fresh socket per attempt so automatic reconnects work
+      webSocketFactory: () => new SockJS('http://localhost:8081/ws'),
       onConnect: () => {
         isConnected.value = true
         console.log('Connected to WebSocket')
 
-        stompClient.subscribe('/topic/market', (message) => {
-          const update = JSON.parse(message.body)
-          handleMarketUpdate(update)
-        })
+        heldFrames = []
+        // Subscriptions do not survive a reconnect
+        itemSubscriptions.clear()
+        watchListedItems()
+        // New listings of every item, so items not shown yet still appear
+        stompClient.subscribe('/topic/market-listings', onFrame)
+        // Fills of our own listings, wherever they are listed
+        stompClient.subscribe('/user/queue/sales', onSales)
+        resync()
       },
       onDisconnect: () => {
         isConnected.value = false
@@ -49,25 +65,109 @@ export const useMarketStore = defineStore('market', () => {
     stompClient.activate()
   }
 
+  const onFrame = (message) => {
+    // Updates arrive batched, one array per server tick
+    const body = JSON.parse(message.body)
+    const updates = Array.isArray(body) ? body : [body]
+    if (heldFrames) {
+      heldFrames.push(updates)
+    } else {
+      applyUpdates(updates)
+    }
+  }
+
+  const onSales = (message) => {
+    const sales = JSON.parse(message.body)
+    const proceeds = sales.reduce((sum, sale) => sum + Number(sale.totalPrice), 0)
+    SoundService.play('coins')
+    const { addFloatingText } = useFloatingText()
+    addFloatingText(`+${formatCurrency(proceeds)}`, window.innerWidth / 2, window.innerHeight / 2, { color: '#10b981' })
+
+    // Also refresh user balance
+    useAuthStore().fetchUser()
+  }
+
+  // Follows /topic/market/{item} for exactly the items of the listings shown,
+  // rather than every trade on the market
+  const watchListedItems = () => {
+    if (!stompClient?.connected) return
+    const wanted = new Set(listings.value.map(l => l.itemName))
+    itemSubscriptions.forEach((subscription, itemName) => {
+      if (!wanted.has(itemName)) {
+        subscription.unsubscribe()
+        itemSubscriptions.delete(itemName)
+      }
+    })
+    wanted.forEach(itemName => {
+      if (!itemSubscriptions.has(itemName)) {
+        itemSubscriptions.set(itemName, stompClient.subscribe(`/topic/market/${itemName}`, onFrame))
+      }
+    })
+  }
+
   const disconnect = () => {
     if (stompClient) {
       stompClient.deactivate()
       stompClient = null
+      itemSubscriptions.clear()
       isConnected.value = false
     }
   }
 
+  const applyUpdates = (updates) => {
+    updates.forEach(update => {
+      // Listings of any item come in on the listings topic; the rest only for items shown
+      const watched = update.type === 'LIST' || itemSubscriptions.has(update.itemName)
+      if ((resyncedSeq === null || update.seq > resyncedSeq) && watched) {
+        handleMarketUpdate(update)
+      }
+      lastSeq = Math.max(lastSeq ?? 0, update.seq)
+    })
+  }
+
+  // Catches up on what was missed while disconnected; reloads the listings only
+  // when the server no longer has every update since lastSeq in lastEpoch
+  const resync = async () => {
+    try {
+      const { data } = await MarketService.getUpdatesSince(lastSeq ?? undefined, lastEpoch ?? undefined)
+      lastEpoch = data.epoch
+      if (data.reload) {
+        lastSeq = data.seq
+        resyncedSeq = data.seq
+        await loadListings(currentPage.value, searchQuery.value)
+      } else if (lastSeq === null) {
+        lastSeq = data.seq
+        resyncedSeq = data.seq
+      } else {
+        resyncedSeq = lastSeq
+        applyUpdates(data.updates)
+        lastSeq = Math.max(lastSeq, data.seq)
+        resyncedSeq = lastSeq
+      }
+    } catch (error) {
+      console.error('Failed to resync market updates', error)
+    } finally {
+      const frames = heldFrames || []
+      heldFrames = null
+      frames.forEach(applyUpdates)
+    }
+  }
+
   const handleMarketUpdate = (update) => {
     if (update.type === 'LIST') {
       // Only add new listing if we are on the first page and NOT searching
       // This preserves the context for other pages
-      if (currentPage.value === 0 && !searchQuery.value) {
+      const existing = listings.value.find(l => l.id === update.id)
+      if (existing) {
+        // Topped up, or the same update from the item topic; LIST carries the open quantity
+        existing.quantity = update.quantity
+      } else if (currentPage.value === 0 && !searchQuery.value) {
         listings.value.unshift({
           id: update.id,
-          item: { name: update.itemName },
+          itemName: update.itemName,
           quantity: update.quantity,
           price: update.price,
-          seller: { username: update.sellerName },
+          sellerUsername: update.sellerName,
           isActive: true,
           qualityScore: update.qualityScore,
           itemUnit: update.itemUnit || 'PIECE'
@@ -78,6 +178,7 @@ export const useMarketStore = defineStore('market', () => {
         if (listings.value.length > pageSize) {
           listings.value.pop()
         }
+        watchListedItems()
       }
     } else if (update.type === 'BUY') {
       // Update existing listing wherever it is in the current view
@@ -89,17 +190,6 @@ export const useMarketStore = defineStore('market', () => {
           listings.value = listings.value.filter(l => l.id !== update.id)
         }
       }
-
-      // Check if current user is the seller
-      const authStore = useAuthStore()
-      if (update.sellerName && authStore.user?.username === update.sellerName) {
-        SoundService.play('coins')
-        const { addFloatingText } = useFloatingText()
-        addFloatingText(`+${formatCurrency(update.totalPrice)}`, window.innerWidth / 2, window.innerHeight / 2, { color: '#10b981' })
-
-        // Also refresh user balance
-        authStore.fetchUser()
-      }
     } else if (update.type === 'CANCEL') {
       // Remove listing
       listings.value = listings.value.filter(l => l.id !== update.id)
@@ -117,6 +207,7 @@ export const useMarketStore = defineStore('market', () => {
       // If it's the first page or a search, replace the listings
       listings.value = response.data.content
       totalPages.value = response.data.totalPages
+      watchListedItems()
 
       return response.data
     } catch (error) {
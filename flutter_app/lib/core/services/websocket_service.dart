@@ -5,20 +5,21 @@ import 'package:stomp_dart_client/stomp_dart_client.dart';
 // Market WebSocket state
 class MarketWebSocketState {
   final bool isConnected;
-  final Map<String, dynamic>? lastUpdate;
+  // Latest per-item digest (volume, last price, best ask and bid) by item name
+  final Map<String, Map<String, dynamic>>? summaries;
 
   MarketWebSocketState({
     this.isConnected = false,
-    this.lastUpdate,
+    this.summaries,
   });
 
   MarketWebSocketState copyWith({
     bool? isConnected,
-    Map<String, dynamic>? lastUpdate,
+    Map<String, Map<String, dynamic>>? summaries,
   }) {
     return MarketWebSocketState(
       isConnected: isConnected ?? this.isConnected,
-      lastUpdate: lastUpdate ?? this.lastUpdate,
+      summaries: summaries ?? this.summaries,
     );
   }
 }
@@ -51,16 +52,24 @@ class MarketWebSocketNotifier extends StateNotifier<MarketWebSocketState> {
     print('Connected to WebSocket');
     state = state.copyWith(isConnected: true);
 
-    // Subscribe to market updates
+    // One digest per traded item per server tick, instead of every update
     _stompClient?.subscribe(
-      destination: '/topic/market',
+      destination: '/topic/market-summary',
       callback: (frame) {
         if (frame.body != null) {
           try {
-            final update = jsonDecode(frame.body!);
-            state = state.copyWith(lastUpdate: Map<String, dynamic>.from(update));
+            final decoded = jsonDecode(frame.body!);
+            final digests = decoded is List ? decoded : [decoded];
+            if (digests.isNotEmpty) {
+              final summaries = Map<String, Map<String, dynamic>>.from(state.summaries ?? {});
+              for (final digest in digests) {
+                final summary = Map<String, dynamic>.from(digest);
+                summaries[summary['itemName'] as String] = summary;
+              }
+              state = state.copyWith(summaries: summaries);
+            }
           } catch (e) {
-            print('Failed to parse market update: $e');
+            print('Failed to parse market summary: $e');
           }
         }
       },
@@ -92,10 +101,10 @@ final marketWebSocketProvider =
   return MarketWebSocketNotifier(serverUrl: 'http://10.0.2.2:8081/ws');
 });
 
-// Stream provider for market updates
-final marketUpdatesProvider = StreamProvider<Map<String, dynamic>>((ref) async* {
+// Stream provider for the market summary ticker
+final marketSummariesProvider = StreamProvider<Map<String, Map<String, dynamic>>>((ref) async* {
   final wsState = ref.watch(marketWebSocketProvider);
-  if (wsState.lastUpdate != null) {
-    yield wsState.lastUpdate!;
+  if (wsState.summaries != null) {
+    yield wsState.summaries!;
   }
 });
@@ -42,7 +42,7 @@ class MarketplacePage extends ConsumerStatefulWidget {
 class _MarketplacePageState extends ConsumerState<MarketplacePage> {
   final TextEditingController _searchController = TextEditingController();
   String _searchQuery = '';
-  Map<String, dynamic>? _lastUpdate;
+  Map<String, Map<String, dynamic>>? _lastSummaries;
 
   @override
   void initState() {
@@ -382,9 +382,9 @@ class _MarketplacePageState extends ConsumerState<MarketplacePage> {
     
     // Listen for WebSocket updates and auto-refresh
     final wsState = ref.watch(marketWebSocketProvider);
-    if (wsState.lastUpdate != null && wsState.lastUpdate != _lastUpdate) {
-      _lastUpdate = wsState.lastUpdate;
-      // Auto-refresh when market update received
+    if (wsState.summaries != null && wsState.summaries != _lastSummaries) {
+      _lastSummaries = wsState.summaries;
+      // Auto-refresh when the market summary ticks
       WidgetsBinding.instance.addPostFrameCallback((_) {
         ref.invalidate(marketplaceProvider);
       });
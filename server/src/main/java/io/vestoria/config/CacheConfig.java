@@ -1,9 +1,14 @@
 package io.vestoria.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import java.time.Duration;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
@@ -18,4 +23,21 @@ public class CacheConfig {
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
                         .fromSerializer(new GenericJackson2JsonRedisSerializer()));
     }
+
+    /**
+     * Publishes {@code cache.hit.ratio} per cache (hits / (hits + misses) since
+     * startup). Only Redis caches keep statistics; others report NaN.
+     */
+    @Bean
+    public MeterBinder cacheHitRatioMetrics(CacheManager cacheManager) {
+        return registry -> cacheManager.getCacheNames()
+                .forEach(name -> Gauge.builder("cache.hit.ratio", cacheManager, manager -> {
+                    if (!(manager.getCache(name) instanceof RedisCache redisCache)) {
+                        return Double.NaN;
+                    }
+                    CacheStatistics stats = redisCache.getStatistics();
+                    long lookups = stats.getHits() + stats.getMisses();
+                    return lookups == 0 ? Double.NaN : (double) stats.getHits() / lookups;
+                }).tag("cache", name).description("Cache hit ratio since startup").register(registry));
+    }
 }
@@ -0,0 +1,33 @@
+package io.vestoria.config;
+
+import io.vestoria.repository.ItemRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Makes item stacks unique before the application serves requests. The key
+ * uses an expression, which ddl-auto cannot create, so it is added here after
+ * folding any duplicate stacks left by earlier concurrent requests.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class InventorySchemaInitializer {
+
+    private final ItemRepository itemRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void ensureUniqueStacks() {
+        transactionTemplate.executeWithoutResult(status -> {
+            int merged = itemRepository.mergeDuplicateStacks();
+            if (merged > 0) {
+                log.info("Merged {} duplicate item stacks", merged);
+            }
+            itemRepository.createStackIndex();
+        });
+    }
+}
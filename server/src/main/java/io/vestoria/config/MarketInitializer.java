@@ -15,15 +15,16 @@ import io.vestoria.repository.BuildingRepository;
 import io.vestoria.repository.ItemRepository;
 import io.vestoria.repository.MarketRepository;
 import io.vestoria.repository.UserRepository;
+import io.vestoria.service.SystemUserRegistry;
 import java.math.BigDecimal;
 import java.util.Arrays;
 import java.util.List;
+import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import lombok.Value;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.password.PasswordEncoder;
 
 @Configuration
 @RequiredArgsConstructor
@@ -33,21 +34,17 @@ public class MarketInitializer {
     private final BuildingRepository buildingRepository;
     private final ItemRepository itemRepository;
     private final MarketRepository marketRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final SystemUserRegistry systemUserRegistry;
 
     @Bean
     public CommandLineRunner initMarket() {
         return args -> {
-            // 1. Create Bot User
-            if (userRepository.findByUsername("vestoria").isPresent()) {
+            // 1. Bot User, created by the registry at startup
+            UUID botUserId = systemUserRegistry.getPrimaryMarketMakerId();
+            if (!buildingRepository.findByOwnerId(botUserId).isEmpty()) {
                 return; // Already initialized
             }
-
-            UserEntity botUser = UserEntity.builder().username("vestoria")
-                    .password(passwordEncoder.encode("vestoria_123")).email("bot@vestoria.io")
-                    .balance(BigDecimal.valueOf(900_000_000)) // Rich bot
-                    .level(100).xp(0L).isAdmin(false).build();
-            userRepository.save(botUser);
+            UserEntity botUser = userRepository.findById(botUserId).orElseThrow();
 
             // 2. Create Bot Warehouse (Factory)
             BuildingEntity warehouse = BuildingEntity.builder().name("Vestoria Building").owner(botUser)
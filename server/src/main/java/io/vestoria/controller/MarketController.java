@@ -1,17 +1,29 @@
 package io.vestoria.controller;
 
 import io.vestoria.converter.MarketConverter;
+import io.vestoria.dto.request.BatchBuyRequestDto;
 import io.vestoria.dto.request.BuyItemRequestDto;
 import io.vestoria.dto.request.ListItemRequestDto;
+import io.vestoria.dto.request.PlaceBidRequestDto;
+import io.vestoria.dto.response.BatchBuyResponseDto;
+import io.vestoria.dto.response.BidOrderResponseDto;
+import io.vestoria.dto.response.CursorPageDto;
+import io.vestoria.dto.response.MarketPricesDto;
 import io.vestoria.dto.response.MarketResponseDto;
+import io.vestoria.dto.response.MarketResyncDto;
 import io.vestoria.dto.response.MarketTrendDto;
+import io.vestoria.dto.response.PriceCandleDto;
 import io.vestoria.service.MarketService;
 import java.math.BigDecimal;
 import java.security.Principal;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -37,6 +49,46 @@ public class MarketController {
         return ResponseEntity.ok(marketService.getActiveListings(search, page, size));
     }
 
+    /**
+     * Cursor mode of {@code /listings}, selected by the {@code cursor} parameter
+     * (empty for the first page). Sorts by {@code price} or {@code newest}.
+     */
+    @GetMapping(value = "/listings", params = "cursor")
+    public ResponseEntity<CursorPageDto<MarketResponseDto>> getActiveListingsByCursor(
+            @RequestParam(required = false) String search, @RequestParam String cursor,
+            @RequestParam(defaultValue = "price") String sort, @RequestParam(defaultValue = "50") int size) {
+
+        return ResponseEntity.ok(marketService.getActiveListings(search, cursor, sort, size));
+    }
+
+    @GetMapping("/prices")
+    public ResponseEntity<MarketPricesDto> getMarketPrices() {
+        return ResponseEntity.ok(marketService.getMarketPrices());
+    }
+
+    /**
+     * Resync for reconnecting WebSocket clients: updates after {@code since} in
+     * log {@code epoch}, or a reload flag when those are no longer kept.
+     */
+    @GetMapping("/updates")
+    public ResponseEntity<MarketResyncDto> getUpdatesSince(@RequestParam(required = false) Long since,
+            @RequestParam(required = false) String epoch, @RequestParam(required = false) String itemName) {
+        return ResponseEntity.ok(marketService.getUpdatesSince(since, epoch, itemName));
+    }
+
+    @GetMapping("/candles")
+    public ResponseEntity<List<PriceCandleDto>> getCandles(@RequestParam String itemName,
+            @RequestParam(defaultValue = "1h") String resolution,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to) {
+        return ResponseEntity.ok(marketService.getCandles(itemName, resolution, from, to));
+    }
+
+    @GetMapping("/item-names")
+    public ResponseEntity<Set<String>> searchItemNames(@RequestParam String search) {
+        return ResponseEntity.ok(marketService.searchItemNames(search));
+    }
+
     @GetMapping("/trends")
     public ResponseEntity<List<MarketTrendDto>> getMarketTrends() {
         return ResponseEntity.ok(marketService.getMarketTrends());
@@ -54,6 +106,11 @@ public class MarketController {
                 .ok(marketConverter.toResponseDto(marketService.listItem(principal.getName(), itemId, request)));
     }
 
+    @PostMapping("/buy/batch")
+    public ResponseEntity<BatchBuyResponseDto> buyBatch(@RequestBody BatchBuyRequestDto request, Principal principal) {
+        return ResponseEntity.ok(marketService.buyBatch(principal.getName(), request));
+    }
+
     @PostMapping("/buy/{marketItemId}")
     public ResponseEntity<Void> buyItem(@PathVariable UUID marketItemId, @RequestBody BuyItemRequestDto request,
             Principal principal) {
@@ -66,4 +123,22 @@ public class MarketController {
         marketService.cancelListing(principal.getName(), listingId);
         return ResponseEntity.ok().build();
     }
+
+    @PostMapping("/bids")
+    public ResponseEntity<BidOrderResponseDto> placeBid(@RequestBody PlaceBidRequestDto request, Principal principal) {
+        return ResponseEntity
+                .ok(marketConverter.toBidResponseDto(marketService.placeBid(principal.getName(), request)));
+    }
+
+    @GetMapping("/bids")
+    public ResponseEntity<List<BidOrderResponseDto>> getMyBids(Principal principal) {
+        return ResponseEntity.ok(marketService.getMyBids(principal.getName()).stream()
+                .map(marketConverter::toBidResponseDto).collect(Collectors.toList()));
+    }
+
+    @DeleteMapping("/bids/{bidId}")
+    public ResponseEntity<Void> cancelBid(@PathVariable UUID bidId, Principal principal) {
+        marketService.cancelBid(principal.getName(), bidId);
+        return ResponseEntity.ok().build();
+    }
 }
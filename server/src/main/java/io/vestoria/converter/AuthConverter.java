@@ -2,18 +2,27 @@ package io.vestoria.converter;
 
 import io.vestoria.dto.response.AuthResponseDto;
 import io.vestoria.entity.UserEntity;
+import java.math.BigDecimal;
 import org.springframework.stereotype.Component;
 
 @Component
 public class AuthConverter {
 
     public AuthResponseDto toAuthDto(UserEntity entity) {
+        return toAuthDto(entity, entity.getBalance());
+    }
+
+    public AuthResponseDto toAuthDto(UserEntity entity, BigDecimal balance) {
         return AuthResponseDto.builder().id(entity.getId().toString()).username(entity.getUsername())
-                .email(entity.getEmail()).balance(entity.getBalance()).level(entity.getLevel())
+                .email(entity.getEmail()).balance(balance).level(entity.getLevel())
                 .createdTime(entity.getCreatedTime()).xp(entity.getXp()).isAdmin(entity.getIsAdmin()).build();
     }
 
     public AuthResponseDto toResponseDto(UserEntity entity) {
         return toAuthDto(entity);
     }
+
+    public AuthResponseDto toResponseDto(UserEntity entity, BigDecimal balance) {
+        return toAuthDto(entity, balance);
+    }
 }
@@ -1,12 +1,19 @@
 package io.vestoria.converter;
 
+import io.vestoria.dto.response.BidOrderResponseDto;
 import io.vestoria.dto.response.MarketResponseDto;
+import io.vestoria.entity.BidOrderEntity;
 import io.vestoria.entity.MarketEntity;
+import io.vestoria.service.SystemUserRegistry;
+import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 @Component
+@RequiredArgsConstructor
 public class MarketConverter {
 
+    private final SystemUserRegistry systemUserRegistry;
+
     public MarketResponseDto toResponseDto(MarketEntity entity) {
         if (entity == null) {
             return null;
@@ -15,6 +22,18 @@ public class MarketConverter {
         return MarketResponseDto.builder().id(entity.getId()).sellerUsername(entity.getSeller().getUsername())
                 .itemId(entity.getItem().getId()).itemName(entity.getItem().getName())
                 .itemUnit(entity.getItem().getUnit()).itemTier(entity.getItem().getTier()).price(entity.getPrice())
-                .quantity(entity.getQuantity()).qualityScore(entity.getItem().getQualityScore()).build();
+                .quantity(entity.getQuantity()).qualityScore(entity.getItem().getQualityScore())
+                .unlimited(systemUserRegistry.isMarketMaker(entity.getSeller().getId())).build();
+    }
+
+    public BidOrderResponseDto toBidResponseDto(BidOrderEntity entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        return BidOrderResponseDto.builder().id(entity.getId()).itemName(entity.getItemName())
+                .maxPrice(entity.getMaxPrice()).quantity(entity.getQuantity())
+                .remainingQuantity(entity.getRemainingQuantity()).minQuality(entity.getMinQuality())
+                .isActive(entity.getIsActive()).createdTime(entity.getCreatedTime()).build();
     }
 }
@@ -0,0 +1,15 @@
+package io.vestoria.dto;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Shop whose sales period has ended and is waiting to be settled.
+ */
+public interface ExpiredSaleDto {
+    UUID getId();
+
+    UUID getOwnerId();
+
+    LocalDateTime getSalesEndsAt();
+}
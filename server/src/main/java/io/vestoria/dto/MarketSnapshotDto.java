@@ -0,0 +1,37 @@
+package io.vestoria.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Demand, supply and price of every item at one point in time. Shops settled
+ * in the same run all price against one snapshot.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class MarketSnapshotDto {
+    private final Map<String, Long> demand;
+    private final Map<String, Long> supply;
+    private final Map<String, BigDecimal> prices;
+    private final LocalDateTime takenAt;
+
+    public long getDemand(String itemName) {
+        return demand.getOrDefault(itemName, 0L);
+    }
+
+    public long getSupply(String itemName) {
+        return supply.getOrDefault(itemName, 0L);
+    }
+
+    /**
+     * The item's price, or {@code null} for an item the snapshot does not know.
+     */
+    public BigDecimal getPrice(String itemName) {
+        return prices.get(itemName);
+    }
+}
@@ -0,0 +1,19 @@
+package io.vestoria.dto.request;
+
+import io.vestoria.enums.BatchBuyMode;
+import java.io.Serializable;
+import java.util.List;
+import java.util.UUID;
+import lombok.Data;
+
+@Data
+public class BatchBuyRequestDto implements Serializable {
+    private List<Line> items;
+    private BatchBuyMode mode; // Defaults to ALL_OR_NOTHING
+
+    @Data
+    public static class Line implements Serializable {
+        private UUID listingId;
+        private Integer quantity;
+    }
+}
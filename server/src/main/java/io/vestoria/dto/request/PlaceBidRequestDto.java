@@ -0,0 +1,13 @@
+package io.vestoria.dto.request;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import lombok.Data;
+
+@Data
+public class PlaceBidRequestDto implements Serializable {
+    private String itemName;
+    private BigDecimal maxPrice;
+    private Integer quantity;
+    private BigDecimal minQuality; // Optional
+}
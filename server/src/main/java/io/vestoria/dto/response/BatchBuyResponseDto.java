@@ -0,0 +1,24 @@
+package io.vestoria.dto.response;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BatchBuyResponseDto implements Serializable {
+    private BigDecimal totalCost;
+    private List<Line> items; // In request order
+
+    @Data
+    @Builder
+    public static class Line implements Serializable {
+        private UUID listingId;
+        private Integer quantity;
+        private boolean bought;
+        private String message; // Why the line was skipped
+    }
+}
@@ -0,0 +1,21 @@
+package io.vestoria.dto.response;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class BidOrderResponseDto implements Serializable {
+    private UUID id;
+    private String itemName;
+    private BigDecimal maxPrice;
+    private Integer quantity;
+    private Integer remainingQuantity;
+    private BigDecimal minQuality;
+    private Boolean isActive;
+    private LocalDateTime createdTime;
+}
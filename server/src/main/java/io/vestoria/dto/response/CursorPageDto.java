@@ -0,0 +1,18 @@
+package io.vestoria.dto.response;
+
+import java.io.Serializable;
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * One page of a keyset-paginated listing. There is no total count; clients
+ * pass {@code nextCursor} back until {@code hasNext} is false.
+ */
+@Data
+@Builder
+public class CursorPageDto<T> implements Serializable {
+    private List<T> content;
+    private String nextCursor;
+    private boolean hasNext;
+}
@@ -0,0 +1,18 @@
+package io.vestoria.dto.response;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Account whose balance (snapshot plus pending credits) disagrees with the
+ * sum of its ledger entries.
+ */
+public interface LedgerMismatchDto {
+    UUID getUserId();
+
+    String getUsername();
+
+    BigDecimal getBalance();
+
+    BigDecimal getLedgerBalance();
+}
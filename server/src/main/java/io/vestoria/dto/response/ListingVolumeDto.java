@@ -0,0 +1,15 @@
+package io.vestoria.dto.response;
+
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+public class ListingVolumeDto {
+    private String itemName;
+    private LocalDateTime createdTime;
+    private Integer quantity;
+}
@@ -0,0 +1,20 @@
+package io.vestoria.dto.response;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+/**
+ * Immutable price snapshot published by the price oracle; served as is.
+ */
+@Getter
+@Builder
+@AllArgsConstructor
+public class MarketPricesDto implements Serializable {
+    private final Map<String, BigDecimal> prices;
+    private final LocalDateTime computedAt;
+}
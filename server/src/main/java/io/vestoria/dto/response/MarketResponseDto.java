@@ -20,4 +20,6 @@ public class MarketResponseDto implements Serializable {
     private BigDecimal price;
     private Integer quantity;
     private BigDecimal qualityScore;
+    // Sold by an NPC market maker from unlimited stock
+    private Boolean unlimited;
 }
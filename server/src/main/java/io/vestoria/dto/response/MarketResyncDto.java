@@ -0,0 +1,21 @@
+package io.vestoria.dto.response;
+
+import java.util.List;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Answer to a reconnecting client. Either the updates after the requested
+ * sequence number, or, when those have left the event log or the client
+ * comes from another node's log, {@code reload} and no updates: the client
+ * reloads the listings it shows and continues from {@code epoch} and
+ * {@code seq}.
+ */
+@Data
+@Builder
+public class MarketResyncDto {
+    private String epoch; // Event log the sequence number belongs to
+    private long seq; // Sequence number the client is caught up to
+    private boolean reload;
+    private List<MarketUpdateDto> updates;
+}
@@ -12,4 +12,5 @@ public class MarketStatsDto {
     private String itemName;
     private BigDecimal minPrice;
     private Long activeCount;
+    private Long activeQuantity;
 }
@@ -0,0 +1,23 @@
+package io.vestoria.dto.response;
+
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Per-item line of the aggregate market channel: what traded in the last tick
+ * and where the book stands now.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MarketSummaryDto {
+    private String itemName;
+    private int volume; // Units traded in the tick
+    private BigDecimal lastPrice;
+    private BigDecimal bestAsk;
+    private BigDecimal bestBid;
+}
@@ -8,14 +8,16 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class MarketUpdateDto {
-    private String type; // "LIST" or "BUY"
+    private long seq;
+    private String type; // "LIST", "BUY", "CANCEL", "BID" or "BID_CANCEL"
     private UUID id;
     private String itemName;
     private int quantity;
     private BigDecimal price;
+    private BigDecimal totalPrice;
     private String sellerName;
 }
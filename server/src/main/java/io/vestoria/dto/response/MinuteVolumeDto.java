@@ -0,0 +1,14 @@
+package io.vestoria.dto.response;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection for per-minute traded volume rows.
+ */
+public interface MinuteVolumeDto {
+    String getItemName();
+
+    LocalDateTime getMinute();
+
+    Long getVolume();
+}
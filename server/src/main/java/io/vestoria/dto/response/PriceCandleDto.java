@@ -0,0 +1,19 @@
+package io.vestoria.dto.response;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class PriceCandleDto implements Serializable {
+    private LocalDateTime bucketStart;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private Long volume;
+    private Integer tradeCount;
+}
@@ -0,0 +1,37 @@
+package io.vestoria.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Credit that has not been folded into {@code users.balance} yet. Rows are
+ * only inserted and deleted, so concurrent credits never wait on the user row.
+ */
+@Entity
+@Table(name = "balance_credits", indexes = {@Index(name = "idx_balance_credits_user", columnList = "user_id"),
+        @Index(name = "idx_balance_credits_seq", columnList = "seq")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BalanceCreditEntity extends BaseEntity {
+
+    @Column(columnDefinition = "bigserial", insertable = false, updatable = false)
+    private Long seq;
+
+    @Column(name = "user_id", nullable = false)
+    private UUID userId;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal amount;
+}
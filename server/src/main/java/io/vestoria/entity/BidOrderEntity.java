@@ -0,0 +1,46 @@
+package io.vestoria.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Entity
+@Table(name = "market_bids", indexes = {@Index(name = "idx_market_bids_buyer_id", columnList = "buyer_id"),
+        @Index(name = "idx_market_bids_item_name_active", columnList = "item_name, is_active")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BidOrderEntity extends BaseEntity {
+
+    @ManyToOne(optional = false)
+    @JoinColumn(name = "buyer_id")
+    private UserEntity buyer;
+
+    @Column(name = "item_name", nullable = false)
+    private String itemName;
+
+    // Highest unit price the buyer accepts; escrowed up front for the full quantity
+    @Column(precision = 18, scale = 2, nullable = false)
+    private BigDecimal maxPrice;
+
+    private Integer quantity;
+
+    private Integer remainingQuantity;
+
+    @Column(precision = 5, scale = 2)
+    private BigDecimal minQuality;
+
+    @Column(name = "is_active")
+    private Boolean isActive;
+}
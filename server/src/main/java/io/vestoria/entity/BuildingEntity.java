@@ -17,6 +17,7 @@ import jakarta.persistence.Table;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.UUID;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Getter;
@@ -71,4 +72,12 @@ public class BuildingEntity extends BaseEntity {
     private Boolean isProducing;
     private Boolean isSelling;
     private BigDecimal lastRevenue;
+
+    // Seeds of the running production and sale until they are drawn; each draw is kept in random_outcomes
+    private Long productionSeed;
+    private Long salesSeed;
+
+    // Settlement of an expired sale is leased to one node until this time, under the claim that took it
+    private LocalDateTime settlementLeaseUntil;
+    private UUID settlementClaimId;
 }
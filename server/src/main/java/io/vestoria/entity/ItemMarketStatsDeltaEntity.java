@@ -0,0 +1,46 @@
+package io.vestoria.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Change to an item's market stats that has not been folded into
+ * {@code item_market_stats} yet. Rows are only inserted and deleted, so trades
+ * on one item never wait on its stats row.
+ */
+@Entity
+@Table(name = "item_market_stats_deltas", indexes = {
+        @Index(name = "idx_item_market_stats_deltas_seq", columnList = "seq")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemMarketStatsDeltaEntity extends BaseEntity {
+
+    @Column(columnDefinition = "bigserial", insertable = false, updatable = false)
+    private Long seq;
+
+    @Column(name = "item_name", nullable = false)
+    private String itemName;
+
+    @Column(nullable = false)
+    private long activeQuantity;
+
+    @Column(nullable = false)
+    private int activeListingCount;
+
+    // Units newly listed, counted towards the hour below
+    @Column(nullable = false)
+    private int listedQuantity;
+
+    @Column(nullable = false)
+    private long listedHour;
+}
@@ -0,0 +1,88 @@
+package io.vestoria.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Supply-side aggregates of one item, folded from the deltas list / buy /
+ * cancel record, so readers never aggregate over {@code market_items}.
+ */
+@Entity
+@Table(name = "item_market_stats", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_item_market_stats_item_name", columnNames = {"item_name"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ItemMarketStatsEntity extends BaseEntity {
+
+    public static final int WINDOW_HOURS = 24;
+
+    @Column(name = "item_name", nullable = false)
+    private String itemName;
+
+    private Long activeQuantity;
+
+    private Integer activeListingCount;
+
+    @Column(precision = 18, scale = 2)
+    private BigDecimal minAsk;
+
+    // Units listed per hour, ring indexed by epoch hour % WINDOW_HOURS
+    @Column(name = "listed_by_hour")
+    private int[] listedByHour;
+
+    // Epoch hour of the newest bucket in listedByHour
+    @Column(name = "listed_hour")
+    private Long listedHour;
+
+    public void addListedVolume(int quantity, long epochHour) {
+        advanceTo(epochHour);
+        if (epochHour <= listedHour - WINDOW_HOURS) {
+            // Already out of the window; its bucket now belongs to a later hour
+            return;
+        }
+        listedByHour[(int) (epochHour % WINDOW_HOURS)] += quantity;
+    }
+
+    /**
+     * Units listed during the last {@link #WINDOW_HOURS} hours, including the
+     * current one.
+     */
+    public long listedVolume(long epochHour) {
+        if (listedByHour == null || listedHour == null) {
+            return 0L;
+        }
+        long total = 0L;
+        for (long hour = Math.max(listedHour - WINDOW_HOURS + 1, epochHour - WINDOW_HOURS + 1); hour <= listedHour
+                && hour <= epochHour; hour++) {
+            total += listedByHour[(int) (hour % WINDOW_HOURS)];
+        }
+        return total;
+    }
+
+    private void advanceTo(long epochHour) {
+        if (listedByHour == null || listedHour == null) {
+            listedByHour = new int[WINDOW_HOURS];
+            listedHour = epochHour;
+            return;
+        }
+        if (epochHour <= listedHour) {
+            return;
+        }
+        // Clear the buckets that fell out of the window
+        for (long hour = Math.max(listedHour + 1, epochHour - WINDOW_HOURS + 1); hour <= epochHour; hour++) {
+            listedByHour[(int) (hour % WINDOW_HOURS)] = 0;
+        }
+        listedHour = epochHour;
+    }
+}
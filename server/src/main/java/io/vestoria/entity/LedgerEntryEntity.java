@@ -0,0 +1,57 @@
+package io.vestoria.entity;
+
+import io.vestoria.enums.LedgerReason;
+import io.vestoria.enums.SystemAccount;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One leg of a balance movement. Every transfer writes a negative leg for the
+ * payer and a positive leg for the payee under the same {@code transferId};
+ * the account is either a user or a {@link SystemAccount}. Rows are never
+ * updated or deleted.
+ */
+@Entity
+@Table(name = "ledger_entries", indexes = {@Index(name = "idx_ledger_entries_user", columnList = "user_id"),
+        @Index(name = "idx_ledger_entries_transfer", columnList = "transfer_id")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class LedgerEntryEntity extends BaseEntity {
+
+    @Column(columnDefinition = "bigserial", insertable = false, updatable = false)
+    private Long seq;
+
+    @Column(name = "transfer_id", nullable = false)
+    private UUID transferId;
+
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "system_account", length = 32)
+    private SystemAccount systemAccount;
+
+    @Column(nullable = false, precision = 18, scale = 2)
+    private BigDecimal amount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private LedgerReason reason;
+
+    @Column(name = "reference_id")
+    private UUID referenceId;
+}
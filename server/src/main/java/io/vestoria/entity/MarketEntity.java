@@ -16,7 +16,9 @@ import lombok.Setter;
 @Entity
 @Table(name = "market_items", indexes = {@Index(name = "idx_market_items_seller_id", columnList = "seller_id"),
         @Index(name = "idx_market_items_item_id", columnList = "item_id"),
-        @Index(name = "idx_market_items_is_active", columnList = "is_active")})
+        @Index(name = "idx_market_items_is_active", columnList = "is_active"),
+        @Index(name = "idx_market_items_active_price", columnList = "is_active, price, id"),
+        @Index(name = "idx_market_items_active_created", columnList = "is_active, created_time, id")})
 @Getter
 @Setter
 @NoArgsConstructor
@@ -0,0 +1,39 @@
+package io.vestoria.entity;
+
+import io.vestoria.enums.OutboxEventType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Event staged in the same transaction as the change it describes and
+ * dispatched by the outbox relay after commit. {@code seq} is filled by the
+ * database and gives the dispatch order.
+ */
+@Entity
+@Table(name = "outbox_events", indexes = {@Index(name = "idx_outbox_events_seq", columnList = "seq")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class OutboxEventEntity extends BaseEntity {
+
+    @Column(columnDefinition = "bigserial", insertable = false, updatable = false)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private OutboxEventType type;
+
+    @Column(nullable = false, columnDefinition = "text")
+    private String payload;
+}
@@ -0,0 +1,57 @@
+package io.vestoria.entity;
+
+import io.vestoria.enums.CandleResolution;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * OHLCV candle of an item's unit trade price for one bucket. The unique key
+ * doubles as the index for range reads.
+ */
+@Entity
+@Table(name = "price_candles", uniqueConstraints = {@UniqueConstraint(name = "uk_price_candles_item_resolution_bucket",
+        columnNames = {"item_name", "resolution", "bucket_start"})})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class PriceCandleEntity extends BaseEntity {
+
+    @Column(name = "item_name", nullable = false)
+    private String itemName;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 4)
+    private CandleResolution resolution;
+
+    @Column(name = "bucket_start", nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(precision = 18, scale = 2)
+    private BigDecimal open;
+
+    @Column(precision = 18, scale = 2)
+    private BigDecimal high;
+
+    @Column(precision = 18, scale = 2)
+    private BigDecimal low;
+
+    @Column(precision = 18, scale = 2)
+    private BigDecimal close;
+
+    private Long volume;
+
+    private Integer tradeCount;
+}
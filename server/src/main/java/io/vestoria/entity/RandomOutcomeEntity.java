@@ -0,0 +1,70 @@
+package io.vestoria.entity;
+
+import io.vestoria.enums.RandomOutcomeType;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import java.math.BigDecimal;
+import java.util.UUID;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * One random draw of a production or sale, with the seed and stream it came
+ * from and every input the outcome was computed from, so each draw can be
+ * replayed on its own (see {@link io.vestoria.service.RandomService}). Market
+ * inputs are the snapshot a sale priced against and are null for production.
+ * Rows are never updated.
+ */
+@Entity
+@Table(name = "random_outcomes", indexes = {@Index(name = "idx_random_outcomes_building", columnList = "building_id")})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class RandomOutcomeEntity extends BaseEntity {
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 32)
+    private RandomOutcomeType type;
+
+    @Column(name = "building_id", nullable = false)
+    private UUID buildingId;
+
+    private String itemName;
+
+    @Column(nullable = false)
+    private Long seed;
+
+    @Column(nullable = false)
+    private Integer stream;
+
+    // The luck factor drawn from the stream
+    private Double luck;
+
+    private Integer ownerLevel;
+
+    // Units produced, units sold, or the quality score
+    @Column(precision = 18, scale = 2)
+    private BigDecimal result;
+
+    private Long demand;
+
+    private Long supply;
+
+    @Column(precision = 18, scale = 2)
+    private BigDecimal marketPrice;
+
+    @Column(precision = 18, scale = 2)
+    private BigDecimal askPrice;
+
+    // Units the draw applied to: the shop's stock, or the building's base production rate
+    private Integer baseQuantity;
+}
@@ -28,7 +28,8 @@ public class UserEntity extends BaseEntity {
 
     private String email;
 
-    @Column(nullable = false, precision = 18, scale = 2)
+    // Snapshot maintained by LedgerService statements; entity saves never write it
+    @Column(nullable = false, precision = 18, scale = 2, updatable = false)
     private BigDecimal balance;
 
     @Column(columnDefinition = "integer CHECK (level <= 100)")
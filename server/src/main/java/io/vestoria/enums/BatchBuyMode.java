@@ -0,0 +1,8 @@
+package io.vestoria.enums;
+
+public enum BatchBuyMode {
+    // Any line that cannot be bought fails the whole batch
+    ALL_OR_NOTHING,
+    // Lines that cannot be bought are skipped and reported
+    BEST_EFFORT
+}
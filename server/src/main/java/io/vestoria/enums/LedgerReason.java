@@ -0,0 +1,6 @@
+package io.vestoria.enums;
+
+public enum LedgerReason {
+    OPENING_BALANCE, MARKET_TRADE, BID_ESCROW, BID_REFUND, SHOP_SALE, BUILDING_CONSTRUCTION, BUILDING_UPGRADE,
+    BUILDING_REFUND
+}
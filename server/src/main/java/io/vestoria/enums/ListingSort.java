@@ -0,0 +1,5 @@
+package io.vestoria.enums;
+
+public enum ListingSort {
+    PRICE, NEWEST
+}
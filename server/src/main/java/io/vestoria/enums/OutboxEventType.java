@@ -0,0 +1,5 @@
+package io.vestoria.enums;
+
+public enum OutboxEventType {
+    MARKET_UPDATE, USER_NOTIFICATION
+}
@@ -0,0 +1,5 @@
+package io.vestoria.enums;
+
+public enum RandomOutcomeType {
+    PRODUCTION_QUALITY, PRODUCTION_QUANTITY, SHOP_SALE
+}
@@ -0,0 +1,12 @@
+package io.vestoria.enums;
+
+/**
+ * Ledger counter-accounts that are not players. Their balance is the negated
+ * sum of what they have paid out.
+ */
+public enum SystemAccount {
+    GENESIS, // Opening balances
+    BID_ESCROW, // Funds held for open bids
+    NPC_MARKET, // Shop sales to simulated customers
+    CONSTRUCTION // Building costs and closing refunds
+}
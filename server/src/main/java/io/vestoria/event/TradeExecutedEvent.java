@@ -0,0 +1,13 @@
+package io.vestoria.event;
+
+import io.vestoria.enums.TransactionType;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Published whenever a {@code market_transactions} row is written for an item.
+ * Listeners that keep derived state should consume it after commit.
+ */
+public record TradeExecutedEvent(TransactionType type, String itemName, int quantity, BigDecimal unitPrice,
+        LocalDateTime executedAt) {
+}
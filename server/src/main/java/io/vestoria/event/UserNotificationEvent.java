@@ -0,0 +1,10 @@
+package io.vestoria.event;
+
+import java.util.UUID;
+
+/**
+ * A notification to be written for a user once the staging transaction has
+ * committed.
+ */
+public record UserNotificationEvent(UUID userId, String message) {
+}
@@ -0,0 +1,34 @@
+package io.vestoria.repository;
+
+import io.vestoria.entity.BalanceCreditEntity;
+import java.math.BigDecimal;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BalanceCreditRepository extends JpaRepository<BalanceCreditEntity, UUID> {
+
+    // Deletes up to :limit credits and adds their sums to the owners' balances in one statement
+    @Modifying
+    @Query(value = "WITH claimed AS (DELETE FROM balance_credits WHERE id IN (SELECT id FROM balance_credits "
+            + "ORDER BY seq LIMIT :limit FOR UPDATE SKIP LOCKED) RETURNING user_id, amount), "
+            + "totals AS (SELECT user_id, SUM(amount) AS total FROM claimed GROUP BY user_id) "
+            + "UPDATE users u SET balance = u.balance + t.total FROM totals t "
+            + "WHERE u.id = t.user_id", nativeQuery = true)
+    int foldBatch(@Param("limit") int limit);
+
+    // Folds every credit of one user, waiting for credits a concurrent fold is holding
+    @Modifying
+    @Query(value = "WITH claimed AS (DELETE FROM balance_credits WHERE id IN (SELECT id FROM balance_credits "
+            + "WHERE user_id = :userId FOR UPDATE) RETURNING amount) "
+            + "UPDATE users SET balance = balance + (SELECT SUM(amount) FROM claimed) "
+            + "WHERE id = :userId AND EXISTS (SELECT 1 FROM claimed)", nativeQuery = true)
+    int foldUser(@Param("userId") UUID userId);
+
+    @Query("SELECT COALESCE(SUM(c.amount), 0) FROM BalanceCreditEntity c WHERE c.userId = :userId")
+    BigDecimal sumPendingByUserId(@Param("userId") UUID userId);
+}
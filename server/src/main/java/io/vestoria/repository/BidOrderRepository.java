@@ -0,0 +1,37 @@
+package io.vestoria.repository;
+
+import io.vestoria.entity.BidOrderEntity;
+import jakarta.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface BidOrderRepository extends JpaRepository<BidOrderEntity, UUID> {
+
+    @Query("SELECT b FROM BidOrderEntity b JOIN FETCH b.buyer WHERE b.isActive = true")
+    List<BidOrderEntity> findAllActiveForOrderBook();
+
+    @Query("SELECT b FROM BidOrderEntity b JOIN FETCH b.buyer WHERE b.itemName = :itemName AND b.isActive = true")
+    List<BidOrderEntity> findActiveByItemName(@Param("itemName") String itemName);
+
+    List<BidOrderEntity> findByBuyer_UsernameAndIsActiveTrueOrderByCreatedTimeDesc(String username);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT b FROM BidOrderEntity b WHERE b.id = :id")
+    Optional<BidOrderEntity> findByIdForUpdate(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE BidOrderEntity b SET b.remainingQuantity = b.remainingQuantity - :quantity, "
+            + "b.isActive = CASE WHEN b.remainingQuantity > :quantity THEN true ELSE false END, "
+            + "b.version = b.version + 1, b.updatedTime = :now "
+            + "WHERE b.id = :id AND b.isActive = true AND b.remainingQuantity >= :quantity")
+    int fillIfAvailable(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+}
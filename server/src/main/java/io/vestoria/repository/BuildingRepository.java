@@ -1,14 +1,18 @@
 package io.vestoria.repository;
 
+import io.vestoria.dto.ExpiredSaleDto;
 import io.vestoria.entity.BuildingEntity;
 import io.vestoria.entity.UserEntity;
 import io.vestoria.enums.BuildingStatus;
 import io.vestoria.enums.BuildingType;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -22,7 +26,25 @@ public interface BuildingRepository extends JpaRepository<BuildingEntity, UUID>
 
     long countByStatus(BuildingStatus status);
 
-    List<BuildingEntity> findAllByIsSellingTrueAndSalesEndsAtBefore(LocalDateTime now);
+    // Leases the oldest expired sales whose lease is free or has run out, until :leaseUntil. A plain
+    // UPDATE rather than UPDATE ... RETURNING, which Spring Data would run as a query and a read-only
+    // transaction would skip; the claimed rows are read back by :claimId with findClaimedSales
+    @Modifying
+    @Query(value = "UPDATE buildings SET settlement_lease_until = :leaseUntil, settlement_claim_id = :claimId, "
+            + "version = version + 1 WHERE id IN (SELECT id FROM buildings WHERE is_selling = true "
+            + "AND sales_ends_at < :now AND (settlement_lease_until IS NULL OR settlement_lease_until < :now) "
+            + "ORDER BY sales_ends_at LIMIT :limit FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int claimExpiredSales(@Param("now") LocalDateTime now, @Param("leaseUntil") LocalDateTime leaseUntil,
+            @Param("claimId") UUID claimId, @Param("limit") int limit);
+
+    @Query(value = "SELECT id AS id, owner_id AS ownerId, sales_ends_at AS salesEndsAt FROM buildings "
+            + "WHERE settlement_claim_id = :claimId ORDER BY sales_ends_at", nativeQuery = true)
+    List<ExpiredSaleDto> findClaimedSales(@Param("claimId") UUID claimId);
+
+    // Locks one expired sale for settlement, or returns empty if another worker has it or already settled it
+    @Query(value = "SELECT * FROM buildings WHERE id = :id AND is_selling = true AND sales_ends_at < :now "
+            + "FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    Optional<BuildingEntity> lockExpiredSale(@Param("id") UUID id, @Param("now") LocalDateTime now);
 
     boolean existsByNameAndTypeAndOwnerId(String name, BuildingType type, UUID ownerId);
 }
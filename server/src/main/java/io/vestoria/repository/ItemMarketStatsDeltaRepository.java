@@ -0,0 +1,24 @@
+package io.vestoria.repository;
+
+import io.vestoria.entity.ItemMarketStatsDeltaEntity;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ItemMarketStatsDeltaRepository extends JpaRepository<ItemMarketStatsDeltaEntity, UUID> {
+
+    // Deltas claimed by another fold are skipped rather than waited on
+    @Query(value = "SELECT * FROM item_market_stats_deltas ORDER BY seq LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<ItemMarketStatsDeltaEntity> claimBatch(@Param("limit") int limit);
+
+    @Modifying
+    @Query("DELETE FROM ItemMarketStatsDeltaEntity d WHERE d.itemName IN :itemNames")
+    int deleteByItemNames(@Param("itemNames") Collection<String> itemNames);
+}
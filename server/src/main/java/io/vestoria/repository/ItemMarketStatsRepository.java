@@ -0,0 +1,33 @@
+package io.vestoria.repository;
+
+import io.vestoria.entity.ItemMarketStatsEntity;
+import jakarta.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ItemMarketStatsRepository extends JpaRepository<ItemMarketStatsEntity, UUID> {
+
+    Optional<ItemMarketStatsEntity> findByItemName(String itemName);
+
+    List<ItemMarketStatsEntity> findByItemNameIn(Collection<String> itemNames);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM ItemMarketStatsEntity s WHERE s.itemName = :itemName")
+    Optional<ItemMarketStatsEntity> findByItemNameForUpdate(@Param("itemName") String itemName);
+
+    // Concurrent first trades of a new item both get a row to lock
+    @Modifying
+    @Query(value = "INSERT INTO item_market_stats (id, version, created_time, updated_time, item_name, "
+            + "active_quantity, active_listing_count) VALUES (gen_random_uuid(), 0, now(), now(), :itemName, 0, 0) "
+            + "ON CONFLICT (item_name) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("itemName") String itemName);
+}
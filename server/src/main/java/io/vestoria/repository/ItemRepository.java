@@ -2,11 +2,13 @@ package io.vestoria.repository;
 
 import io.vestoria.dto.ItemAggregateDto;
 import io.vestoria.entity.ItemEntity;
-import io.vestoria.entity.UserEntity;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -25,8 +27,6 @@ public interface ItemRepository extends JpaRepository<ItemEntity, UUID> {
 
     List<ItemEntity> findAllByOwner_UsernameAndBuildingIsNull(String username);
 
-    Optional<ItemEntity> findByOwnerAndBuildingIsNullAndName(UserEntity owner, String name);
-
     long countByBuilding_Id(UUID buildingId);
 
     @Query("SELECT SUM(i.quantity) FROM ItemEntity i WHERE i.name = :itemName")
@@ -35,4 +35,56 @@ public interface ItemRepository extends JpaRepository<ItemEntity, UUID> {
     long countByBuildingIdAndQuantityGreaterThan(UUID buildingId, int quantity);
 
     List<ItemEntity> findByOwnerIdAndBuildingIsNull(UUID ownerId);
+
+    // Stack identity: owner, location (null = centralized), name and quality; unique via uk_items_stack
+    Optional<ItemEntity> findByOwnerIdAndBuildingIdAndNameAndQualityScore(UUID ownerId, UUID buildingId, String name,
+            BigDecimal qualityScore);
+
+    @Modifying
+    @Query("UPDATE ItemEntity i SET i.quantity = i.quantity - :quantity, i.version = i.version + 1, "
+            + "i.updatedTime = :now WHERE i.id = :id AND i.quantity >= :quantity")
+    int decrementIfAtLeast(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ItemEntity i SET i.quantity = i.quantity + :quantity, i.version = i.version + 1, "
+            + "i.updatedTime = :now WHERE i.id = :id")
+    int increment(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
+
+    // Adds to the owner's stack of this item and quality at the location, or starts one
+    @Modifying(flushAutomatically = true)
+    @Query(value = "INSERT INTO items (id, version, created_time, updated_time, owner_id, building_id, name, unit, "
+            + "tier, quality_score, price, cost, quantity) "
+            + "VALUES (gen_random_uuid(), 0, :now, :now, :ownerId, CAST(:buildingId AS uuid), :name, :unit, :tier, "
+            + ":qualityScore, CAST(:price AS numeric), CAST(:cost AS numeric), :quantity) "
+            + "ON CONFLICT (owner_id, COALESCE(building_id, CAST('00000000-0000-0000-0000-000000000000' AS uuid)), "
+            + "name, quality_score) DO UPDATE SET quantity = items.quantity + EXCLUDED.quantity, "
+            + "version = items.version + 1, updated_time = EXCLUDED.updated_time", nativeQuery = true)
+    int upsertStack(@Param("ownerId") UUID ownerId, @Param("buildingId") UUID buildingId, @Param("name") String name,
+            @Param("unit") String unit, @Param("tier") String tier, @Param("qualityScore") BigDecimal qualityScore,
+            @Param("price") BigDecimal price, @Param("cost") BigDecimal cost, @Param("quantity") int quantity,
+            @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM ItemEntity i WHERE i.id = :id AND i.quantity = 0 "
+            + "AND NOT EXISTS (SELECT m FROM MarketEntity m WHERE m.item.id = :id)")
+    int deleteIfEmpty(@Param("id") UUID id);
+
+    // Folds duplicate stacks into the oldest one, moving their listings along
+    @Modifying
+    @Query(value = "WITH stacks AS (SELECT id, FIRST_VALUE(id) OVER w AS keep_id, SUM(quantity) OVER ("
+            + "PARTITION BY owner_id, building_id, name, quality_score) AS total FROM items "
+            + "WHERE quality_score IS NOT NULL "
+            + "WINDOW w AS (PARTITION BY owner_id, building_id, name, quality_score ORDER BY created_time, id)), "
+            + "dupes AS (SELECT id, keep_id FROM stacks WHERE id <> keep_id), "
+            + "relinked AS (UPDATE market_items m SET item_id = d.keep_id FROM dupes d WHERE m.item_id = d.id), "
+            + "kept AS (UPDATE items i SET quantity = s.total, version = i.version + 1 FROM stacks s "
+            + "WHERE i.id = s.id AND s.id = s.keep_id AND s.id IN (SELECT keep_id FROM dupes)) "
+            + "DELETE FROM items i USING dupes d WHERE i.id = d.id", nativeQuery = true)
+    int mergeDuplicateStacks();
+
+    @Modifying
+    @Query(value = "CREATE UNIQUE INDEX IF NOT EXISTS uk_items_stack ON items (owner_id, "
+            + "COALESCE(building_id, CAST('00000000-0000-0000-0000-000000000000' AS uuid)), name, quality_score)",
+            nativeQuery = true)
+    void createStackIndex();
 }
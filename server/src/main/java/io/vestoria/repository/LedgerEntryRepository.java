@@ -0,0 +1,40 @@
+package io.vestoria.repository;
+
+import io.vestoria.dto.response.LedgerMismatchDto;
+import io.vestoria.entity.LedgerEntryEntity;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntryEntity, UUID> {
+
+    // Opens every account without entries at its current balance, paid by GENESIS
+    @Modifying
+    @Query(value = "WITH opened AS (SELECT u.id AS user_id, u.balance + COALESCE((SELECT SUM(c.amount) "
+            + "FROM balance_credits c WHERE c.user_id = u.id), 0) AS amount, gen_random_uuid() AS transfer_id "
+            + "FROM users u WHERE NOT EXISTS (SELECT 1 FROM ledger_entries e WHERE e.user_id = u.id)) "
+            + "INSERT INTO ledger_entries (id, version, created_time, updated_time, transfer_id, user_id, "
+            + "system_account, amount, reason, reference_id) "
+            + "SELECT gen_random_uuid(), 0, now(), now(), o.transfer_id, CASE WHEN leg.payee THEN o.user_id END, "
+            + "CASE WHEN leg.payee THEN NULL ELSE 'GENESIS' END, CASE WHEN leg.payee THEN o.amount ELSE -o.amount END, "
+            + "'OPENING_BALANCE', o.user_id FROM opened o CROSS JOIN (VALUES (true), (false)) AS leg(payee)",
+            nativeQuery = true)
+    int openMissingAccounts();
+
+    @Query(value = "SELECT u.id AS userId, u.username AS username, "
+            + "u.balance + COALESCE(p.pending, 0) AS balance, COALESCE(l.total, 0) AS ledgerBalance FROM users u "
+            + "LEFT JOIN (SELECT user_id, SUM(amount) AS pending FROM balance_credits GROUP BY user_id) p "
+            + "ON p.user_id = u.id "
+            + "LEFT JOIN (SELECT user_id, SUM(amount) AS total FROM ledger_entries WHERE user_id IS NOT NULL "
+            + "GROUP BY user_id) l ON l.user_id = u.id "
+            + "WHERE u.balance + COALESCE(p.pending, 0) <> COALESCE(l.total, 0)", nativeQuery = true)
+    List<LedgerMismatchDto> findAccountMismatches();
+
+    @Query(value = "SELECT COUNT(*) FROM (SELECT transfer_id FROM ledger_entries GROUP BY transfer_id "
+            + "HAVING SUM(amount) <> 0) t", nativeQuery = true)
+    long countUnbalancedTransfers();
+}
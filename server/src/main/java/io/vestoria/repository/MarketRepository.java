@@ -1,17 +1,20 @@
 package io.vestoria.repository;
 
+import io.vestoria.dto.response.ListingVolumeDto;
 import io.vestoria.dto.response.MarketStatsDto;
 import io.vestoria.entity.MarketEntity;
-import io.vestoria.entity.UserEntity;
+import jakarta.persistence.LockModeType;
 import jakarta.transaction.Transactional;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -20,8 +23,37 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface MarketRepository extends JpaRepository<MarketEntity, UUID> {
 
-    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item WHERE m.isActive = true AND (:search IS NULL OR LOWER(m.item.name) LIKE :search)")
-    Page<MarketEntity> findAllActiveWithDetails(@Param("search") String search, Pageable pageable);
+    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item WHERE m.isActive = true")
+    Page<MarketEntity> findAllActiveWithDetails(Pageable pageable);
+
+    // Search terms are resolved to catalog item names first (ItemSearchService),
+    // so the filter is an IN on the indexed name column rather than '%term%'.
+    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item i WHERE m.isActive = true AND i.name IN :itemNames")
+    Page<MarketEntity> findAllActiveWithDetailsByItemNames(@Param("itemNames") Collection<String> itemNames,
+            Pageable pageable);
+
+    // Keyset pages: callers pass the last (price, id) / (createdTime, id) seen and
+    // request size + 1 rows to learn whether another page exists.
+    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item i JOIN FETCH m.seller WHERE m.isActive = true "
+            + "AND (m.price, m.id) > (:price, :id) ORDER BY m.price ASC, m.id ASC")
+    List<MarketEntity> findActiveAfterPrice(@Param("price") BigDecimal price, @Param("id") UUID id,
+            Pageable pageable);
+
+    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item i JOIN FETCH m.seller WHERE m.isActive = true "
+            + "AND i.name IN :itemNames AND (m.price, m.id) > (:price, :id) ORDER BY m.price ASC, m.id ASC")
+    List<MarketEntity> findActiveAfterPriceByItemNames(@Param("itemNames") Collection<String> itemNames,
+            @Param("price") BigDecimal price, @Param("id") UUID id, Pageable pageable);
+
+    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item i JOIN FETCH m.seller WHERE m.isActive = true "
+            + "AND (m.createdTime, m.id) < (:createdTime, :id) ORDER BY m.createdTime DESC, m.id DESC")
+    List<MarketEntity> findActiveBeforeCreatedTime(@Param("createdTime") LocalDateTime createdTime,
+            @Param("id") UUID id, Pageable pageable);
+
+    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item i JOIN FETCH m.seller WHERE m.isActive = true "
+            + "AND i.name IN :itemNames AND (m.createdTime, m.id) < (:createdTime, :id) "
+            + "ORDER BY m.createdTime DESC, m.id DESC")
+    List<MarketEntity> findActiveBeforeCreatedTimeByItemNames(@Param("itemNames") Collection<String> itemNames,
+            @Param("createdTime") LocalDateTime createdTime, @Param("id") UUID id, Pageable pageable);
 
     @Query("SELECT COUNT(m) FROM MarketEntity m JOIN m.item JOIN m.item.building WHERE m.item.building.id = :buildingId AND m.isActive = true")
     long countActiveListingsByBuilding(@Param("buildingId") UUID buildingId);
@@ -30,23 +62,48 @@ public interface MarketRepository extends JpaRepository<MarketEntity, UUID> {
     @Transactional
     void deleteByIsActiveFalseAndUpdatedTimeBefore(LocalDateTime dateTime);
 
-    @Query("SELECT MIN(m.price) FROM MarketEntity m JOIN m.item WHERE m.item.name = :itemName AND m.isActive = true")
-    BigDecimal findMinPriceByItemName(@Param("itemName") String itemName);
+    @Query("SELECT MIN(m.price) FROM MarketEntity m JOIN m.item WHERE m.item.name = :itemName AND m.isActive = true "
+            + "AND m.seller.id NOT IN :excludedSellerIds")
+    BigDecimal findMinPriceByItemName(@Param("itemName") String itemName,
+            @Param("excludedSellerIds") Collection<UUID> excludedSellerIds);
 
     @Query("SELECT COUNT(m) FROM MarketEntity m JOIN m.item WHERE m.item.name = :itemName AND m.isActive = true")
     long countActiveListingsByItemName(@Param("itemName") String itemName);
 
-    @Query("SELECT COALESCE(SUM(m.quantity), 0) FROM MarketEntity m JOIN m.item WHERE m.item.name = :itemName AND m.isActive = true")
-    long sumActiveQuantityByItemName(@Param("itemName") String itemName);
+    // Only used to seed item_market_stats; readers go through MarketStatsService
+    @Query("SELECT new io.vestoria.dto.response.MarketStatsDto(m.item.name, MIN(m.price), COUNT(m), "
+            + "SUM(m.quantity)) FROM MarketEntity m WHERE m.isActive = true AND m.seller.id NOT IN :excludedSellerIds "
+            + "GROUP BY m.item.name")
+    List<MarketStatsDto> findActiveMarketStats(@Param("excludedSellerIds") Collection<UUID> excludedSellerIds);
 
-    @Query("SELECT SUM(m.quantity) FROM MarketEntity m JOIN m.item i WHERE i.name = :itemName AND m.createdTime > :date")
-    Integer sumByItemNameAndCreatedAtAfter(@Param("itemName") String itemName, @Param("date") LocalDateTime date);
+    @Query("SELECT new io.vestoria.dto.response.ListingVolumeDto(i.name, m.createdTime, m.quantity) "
+            + "FROM MarketEntity m JOIN m.item i WHERE m.createdTime > :since "
+            + "AND m.seller.id NOT IN :excludedSellerIds")
+    List<ListingVolumeDto> findListingVolumesSince(@Param("since") LocalDateTime since,
+            @Param("excludedSellerIds") Collection<UUID> excludedSellerIds);
 
-    @Query("SELECT new io.vestoria.dto.response.MarketStatsDto(m.item.name, MIN(m.price), COUNT(m)) "
-            + "FROM MarketEntity m " + "WHERE m.item.name IN :itemNames AND m.isActive = true "
-            + "GROUP BY m.item.name")
-    List<MarketStatsDto> findMarketStatsByItemNames(@Param("itemNames") List<String> itemNames);
+    // Native, so the row is locked as it is read: the JPQL join to items made Hibernate lock in a follow-on
+    // select by version, which failed whenever a fill landed in between
+    @Query(value = "SELECT m.* FROM market_items m JOIN items i ON i.id = m.item_id WHERE m.seller_id = :sellerId "
+            + "AND i.name = :itemName AND m.price = :price AND m.is_active = true FOR UPDATE OF m",
+            nativeQuery = true)
+    Optional<MarketEntity> findActiveListingForUpdate(@Param("sellerId") UUID sellerId,
+            @Param("itemName") String itemName, @Param("price") BigDecimal price);
+
+    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item i JOIN FETCH m.seller LEFT JOIN FETCH i.building WHERE m.isActive = true")
+    List<MarketEntity> findAllActiveForOrderBook();
+
+    @Query("SELECT m FROM MarketEntity m JOIN FETCH m.item i JOIN FETCH m.seller LEFT JOIN FETCH i.building WHERE m.isActive = true AND i.name = :itemName")
+    List<MarketEntity> findActiveForOrderBookByItemName(@Param("itemName") String itemName);
 
-    Optional<MarketEntity> findBySellerAndItemNameAndPriceAndIsActiveTrue(UserEntity seller, String itemName,
-            BigDecimal price);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT m FROM MarketEntity m WHERE m.id = :id")
+    Optional<MarketEntity> findByIdForUpdate(@Param("id") UUID id);
+
+    @Modifying
+    @Query("UPDATE MarketEntity m SET m.quantity = m.quantity - :quantity, "
+            + "m.isActive = CASE WHEN m.quantity > :quantity THEN true ELSE false END, "
+            + "m.version = m.version + 1, m.updatedTime = :now "
+            + "WHERE m.id = :id AND m.isActive = true AND m.quantity >= :quantity")
+    int fillIfAvailable(@Param("id") UUID id, @Param("quantity") int quantity, @Param("now") LocalDateTime now);
 }
@@ -0,0 +1,24 @@
+package io.vestoria.repository;
+
+import io.vestoria.entity.OutboxEventEntity;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEventEntity, UUID> {
+
+    // One relay at a time, so consecutive batches are not dispatched by two nodes at once; released at commit.
+    // Dispatch follows claim order, not strictly seq: seq is taken at insert, and a transaction holding a lower
+    // seq may commit after higher ones were relayed
+    @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+    boolean tryRelayLock(@Param("key") long key);
+
+    // Rows claimed by another relay are skipped rather than waited on
+    @Query(value = "SELECT * FROM outbox_events ORDER BY seq LIMIT :limit FOR UPDATE SKIP LOCKED",
+            nativeQuery = true)
+    List<OutboxEventEntity> claimBatch(@Param("limit") int limit);
+}
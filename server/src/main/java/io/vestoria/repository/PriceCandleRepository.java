@@ -0,0 +1,44 @@
+package io.vestoria.repository;
+
+import io.vestoria.entity.PriceCandleEntity;
+import io.vestoria.enums.CandleResolution;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface PriceCandleRepository extends JpaRepository<PriceCandleEntity, UUID> {
+
+    @Query("SELECT c FROM PriceCandleEntity c WHERE c.itemName = :itemName AND c.resolution = :resolution "
+            + "AND c.bucketStart >= :from AND c.bucketStart < :to ORDER BY c.bucketStart ASC")
+    List<PriceCandleEntity> findRange(@Param("itemName") String itemName,
+            @Param("resolution") CandleResolution resolution, @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to, Pageable pageable);
+
+    // Merges a partial candle: open is kept from the first write, close from the latest
+    @Modifying
+    @Query(value = "INSERT INTO price_candles (id, version, created_time, updated_time, item_name, resolution, "
+            + "bucket_start, open, high, low, close, volume, trade_count) VALUES (gen_random_uuid(), 0, now(), now(), "
+            + ":itemName, :resolution, :bucketStart, :open, :high, :low, :close, :volume, :tradeCount) "
+            + "ON CONFLICT (item_name, resolution, bucket_start) DO UPDATE SET "
+            + "high = GREATEST(price_candles.high, EXCLUDED.high), low = LEAST(price_candles.low, EXCLUDED.low), "
+            + "close = EXCLUDED.close, volume = price_candles.volume + EXCLUDED.volume, "
+            + "trade_count = price_candles.trade_count + EXCLUDED.trade_count, updated_time = now()",
+            nativeQuery = true)
+    int merge(@Param("itemName") String itemName, @Param("resolution") String resolution,
+            @Param("bucketStart") LocalDateTime bucketStart, @Param("open") BigDecimal open,
+            @Param("high") BigDecimal high, @Param("low") BigDecimal low, @Param("close") BigDecimal close,
+            @Param("volume") long volume, @Param("tradeCount") int tradeCount);
+
+    @Modifying
+    @Query("DELETE FROM PriceCandleEntity c WHERE c.resolution = :resolution AND c.bucketStart < :before")
+    int deleteByResolutionAndBucketStartBefore(@Param("resolution") CandleResolution resolution,
+            @Param("before") LocalDateTime before);
+}
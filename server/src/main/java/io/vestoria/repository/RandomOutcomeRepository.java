@@ -0,0 +1,10 @@
+package io.vestoria.repository;
+
+import io.vestoria.entity.RandomOutcomeEntity;
+import java.util.UUID;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface RandomOutcomeRepository extends JpaRepository<RandomOutcomeEntity, UUID> {
+}
@@ -2,14 +2,13 @@ package io.vestoria.repository;
 
 import io.vestoria.dto.response.CategoryBreakdownDto;
 import io.vestoria.dto.response.DailyFinancialDto;
-import io.vestoria.dto.response.TrendingItemDto;
+import io.vestoria.dto.response.MinuteVolumeDto;
 import io.vestoria.entity.TransactionEntity;
 import io.vestoria.entity.UserEntity;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.UUID;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -21,15 +20,16 @@ public interface TransactionRepository extends JpaRepository<TransactionEntity,
     BigDecimal sumEarningsBySellerAndCreatedAtAfter(@Param("seller") UserEntity seller,
             @Param("date") LocalDateTime date);
 
-    @Query("SELECT SUM(t.amount) FROM TransactionEntity t WHERE t.itemName = :itemName AND t.createdTime > :date")
-    Integer sumByItemNameAndCreatedAtAfter(@Param("itemName") String itemName, @Param("date") LocalDateTime date);
+    // Seeds the in-memory demand counters; live reads go through DemandCounterService
+    @Query(value = "SELECT t.item_name AS itemName, date_trunc('minute', t.created_time) AS minute, "
+            + "SUM(t.amount) AS volume FROM market_transactions t WHERE t.item_name IS NOT NULL "
+            + "AND t.created_time > :since GROUP BY t.item_name, date_trunc('minute', t.created_time)",
+            nativeQuery = true)
+    List<MinuteVolumeDto> sumAmountByItemNameAndMinuteSince(@Param("since") LocalDateTime since);
 
     @Query("SELECT SUM(t.price) FROM TransactionEntity t WHERE t.buyer = :buyer AND t.createdTime > :date")
     BigDecimal sumExpensesByBuyerAndCreatedAtAfter(@Param("buyer") UserEntity buyer, @Param("date") LocalDateTime date);
 
-    @Query("SELECT new io.vestoria.dto.response.TrendingItemDto(t.itemName, SUM(t.amount)) FROM TransactionEntity t WHERE t.createdTime > :date GROUP BY t.itemName ORDER BY SUM(t.amount) DESC")
-    List<TrendingItemDto> findTopTrendingItems(@Param("date") LocalDateTime date, Pageable pageable);
-
     @Query("SELECT new io.vestoria.dto.response.DailyFinancialDto(CAST(t.createdTime AS LocalDate), SUM(t.price)) FROM TransactionEntity t WHERE t.seller = :user AND t.createdTime > :date GROUP BY CAST(t.createdTime AS LocalDate) ORDER BY CAST(t.createdTime AS LocalDate)")
     List<DailyFinancialDto> getDailyIncome(@Param("user") UserEntity user, @Param("date") LocalDateTime date);
 
@@ -1,9 +1,13 @@
 package io.vestoria.repository;
 
 import io.vestoria.entity.UserEntity;
+import java.math.BigDecimal;
 import java.util.Optional;
 import java.util.UUID;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -13,4 +17,12 @@ public interface UserRepository extends JpaRepository<UserEntity, UUID> {
     boolean existsByUsername(String username);
 
     boolean existsByEmail(String email);
+
+    // Balance is only written by statements like this one, never by entity saves
+    @Modifying
+    @Query("UPDATE UserEntity u SET u.balance = u.balance - :amount WHERE u.id = :id AND u.balance >= :amount")
+    int debitIfSufficient(@Param("id") UUID id, @Param("amount") BigDecimal amount);
+
+    @Query("SELECT u.balance FROM UserEntity u WHERE u.id = :id")
+    BigDecimal findBalanceById(@Param("id") UUID id);
 }
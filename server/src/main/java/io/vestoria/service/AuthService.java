@@ -16,6 +16,7 @@ import java.util.List;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 
 @Service
@@ -26,6 +27,7 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtTokenProvider jwtTokenProvider;
     private final AuthConverter authConverter;
+    private final LedgerService ledgerService;
 
     public AuthResult login(LoginRequestDto request) {
         UserEntity userEntity = userRepository.findByUsername(request.getUsername())
@@ -43,10 +45,11 @@ public class AuthService {
         }
 
         String token = jwtTokenProvider.generateToken(userEntity.getUsername(), roles);
-        AuthResponseDto userDto = authConverter.toAuthDto(userEntity);
+        AuthResponseDto userDto = authConverter.toAuthDto(userEntity, ledgerService.getBalance(userEntity));
         return AuthResult.builder().token(token).user(userDto).build();
     }
 
+    @Transactional
     public AuthResult register(RegisterRequestDto request) {
         if (userRepository.existsByUsername(request.getUsername().toUpperCase())) {
             throw new BusinessRuleException("Bu Kullanıcı Adı Kullanılıyor!");
@@ -62,6 +65,7 @@ public class AuthService {
 
         @SuppressWarnings("null")
         UserEntity saved = userRepository.save(entity);
+        ledgerService.openAccount(saved);
 
         List<String> roles = new ArrayList<>();
         roles.add("ROLE_USER");
@@ -1,24 +1,36 @@
 package io.vestoria.service;
 
+import io.vestoria.dto.MarketSnapshotDto;
 import io.vestoria.entity.BuildingEntity;
 import io.vestoria.entity.ItemEntity;
+import io.vestoria.entity.RandomOutcomeEntity;
 import io.vestoria.entity.TransactionEntity;
 import io.vestoria.entity.UserEntity;
 import io.vestoria.enums.BuildingType;
 import io.vestoria.enums.ItemTier;
+import io.vestoria.enums.LedgerReason;
+import io.vestoria.enums.RandomOutcomeType;
+import io.vestoria.enums.SystemAccount;
 import io.vestoria.enums.TransactionType;
+import io.vestoria.event.TradeExecutedEvent;
 import io.vestoria.exception.BusinessRuleException;
 import io.vestoria.exception.ResourceNotFoundException;
 import io.vestoria.repository.BuildingRepository;
-import io.vestoria.repository.ItemRepository;
+import io.vestoria.repository.RandomOutcomeRepository;
 import io.vestoria.repository.TransactionRepository;
 import io.vestoria.repository.UserRepository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.UUID;
 import lombok.RequiredArgsConstructor;
 import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -27,27 +39,37 @@ import org.springframework.transaction.annotation.Transactional;
 public class BotService {
 
     private final BuildingRepository buildingRepository;
-    private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
-    private final NotificationService notificationService;
+    private final RandomOutcomeRepository randomOutcomeRepository;
+    private final OutboxService outboxService;
+    private final LedgerService ledgerService;
     private final UserService userService;
     private final MarketService marketService;
-    private final EconomicService economicService;
-
-    // @Scheduled(fixedRate = 60000) // Every minute - DISABLED as per user request
+    private final PriceOracleService priceOracleService;
+    private final MarketCacheService marketCacheService;
+    private final RandomService randomService;
+    private final SystemUserRegistry systemUserRegistry;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Sells a shop's stock to the NPC market at the current market state and
+     * closes its sales period.
+     */
     @Transactional
-    public void checkExpiredSales() {
-        List<BuildingEntity> expiredSales = buildingRepository
-                .findAllByIsSellingTrueAndSalesEndsAtBefore(LocalDateTime.now());
-        for (BuildingEntity shop : expiredSales) {
-            processShopSales(shop.getId());
-        }
+    @CacheEvict(value = "getUserBuildings", allEntries = true)
+    public void processShopSales(UUID buildingId) {
+        processShopSales(buildingId, marketService.takeMarketSnapshot());
     }
 
+    /**
+     * Sells a shop's stock to the NPC market, pricing against the given
+     * snapshot. Expired shops are settled by {@link ShopSettlementService},
+     * which shares one snapshot across a run.
+     */
     @Transactional
-    @CacheEvict(value = {"globalSupply", "globalDemand", "getUserBuildings"}, allEntries = true)
-    public void processShopSales(UUID buildingId) {
+    @CacheEvict(value = "getUserBuildings", allEntries = true)
+    public void processShopSales(UUID buildingId, MarketSnapshotDto market) {
         BuildingEntity shop = buildingRepository.findById(buildingId)
                 .orElseThrow(() -> new ResourceNotFoundException("Dükkan bulunamadı"));
 
@@ -59,15 +81,30 @@ public class BotService {
             throw new BusinessRuleException("Bu işletmede satışa çıkarılmış herhangi bir ürün yok!");
         }
 
-        List<ItemEntity> itemsForSale = shop.getItems();
+        // Seed drawn when the sale started; each item draws from its own stream of it
+        if (shop.getSalesSeed() == null) {
+            shop.setSalesSeed(randomService.seedFor(shop.getId(), LocalDateTime.now()));
+        }
+        long seed = shop.getSalesSeed();
+
+        // Fixed order, so every item gets the same stream on a replay
+        List<ItemEntity> itemsForSale = shop.getItems().stream().sorted(Comparator.comparing(ItemEntity::getId))
+                .toList();
         BigDecimal totalBatchEarnings = BigDecimal.ZERO;
         StringBuilder salesSummary = new StringBuilder();
-
-        for (ItemEntity item : itemsForSale) {
+        long soldQuantity = 0;
+        List<TransactionEntity> transactions = new ArrayList<>();
+        Set<String> soldItemNames = new HashSet<>();
+        List<RandomOutcomeEntity> outcomes = new ArrayList<>();
+        UserEntity botUser = userRepository.getReferenceById(systemUserRegistry.getPrimaryMarketMakerId());
+
+        for (int stream = 0; stream < itemsForSale.size(); stream++) {
+            ItemEntity item = itemsForSale.get(stream);
             if (item.getQuantity() > 0) {
+                SplittableRandom random = randomService.forSeed(seed, stream);
 
-                long globalDemand = marketService.calculateGlobalDemand(item.getName());
-                long globalSupply = marketService.calculateGlobalSupply(item.getName());
+                long globalDemand = market.getDemand(item.getName());
+                long globalSupply = market.getSupply(item.getName());
 
                 ItemTier tier = item.getTier();
                 item.setTier(tier);
@@ -84,7 +121,7 @@ public class BotService {
                 double buyPercentage = finalScore / 100.0;
 
                 // Luck factor for sales (Market Volatility): 0.8 to 1.2 (+/- 20%)
-                double salesLuck = 0.8 + (Math.random() * 0.4);
+                double salesLuck = random.nextDouble(0.8, 1.2);
                 buyPercentage = buyPercentage * salesLuck;
 
                 // Level factor for sales: +1% per level
@@ -95,8 +132,11 @@ public class BotService {
                 // Price Factor Calculation
                 BigDecimal salesPrice = item.getPrice(); // User set price
 
-                // Get Dynamic Market Price for Reference
-                BigDecimal marketPrice = economicService.getMarketPrice(item.getName());
+                // Get Dynamic Market Price for Reference; items the snapshot does not know are priced on demand
+                BigDecimal marketPrice = market.getPrice(item.getName());
+                if (marketPrice == null) {
+                    marketPrice = priceOracleService.getPrice(item.getName());
+                }
 
                 double priceMultiplier = 1.0;
                 if (marketPrice.compareTo(BigDecimal.ZERO) > 0) {
@@ -123,7 +163,7 @@ public class BotService {
                 // If price is less than 3x base price, ensure at least 1 item is sold 50% of
                 // the time (random chance)
                 if (quantityToBuy == 0 && priceMultiplier > 0.1) {
-                    if (Math.random() > 0.5) {
+                    if (random.nextDouble() > 0.5) {
                         quantityToBuy = 1;
                     }
                 }
@@ -132,43 +172,48 @@ public class BotService {
                     quantityToBuy = item.getQuantity();
                 }
 
+                outcomes.add(RandomOutcomeEntity.builder().type(RandomOutcomeType.SHOP_SALE).buildingId(shop.getId())
+                        .itemName(item.getName()).seed(seed).stream(stream).luck(salesLuck).ownerLevel(userLevel)
+                        .result(BigDecimal.valueOf(quantityToBuy)).demand(globalDemand).supply(globalSupply)
+                        .marketPrice(marketPrice).askPrice(salesPrice).baseQuantity(item.getQuantity()).build());
+
                 if (quantityToBuy > 0) {
                     BigDecimal pricePerUnit = salesPrice;
                     BigDecimal totalEarnings = pricePerUnit.multiply(BigDecimal.valueOf(quantityToBuy));
                     totalBatchEarnings = totalBatchEarnings.add(totalEarnings);
+                    soldQuantity += quantityToBuy;
 
-                    UserEntity owner = shop.getOwner();
-                    owner.setBalance(owner.getBalance().add(totalEarnings));
-                    userRepository.save(owner);
-
-                    // Update XP (Progression) via UserService
-                    userService.addXp(owner, quantityToBuy * 10L); // 10 XP per item
-
-                    // Remove items
+                    // Remove items; written with the other dirty items as one batch at flush
                     item.setQuantity(item.getQuantity() - quantityToBuy);
-                    itemRepository.save(item);
-
-                    // Fetch Bot User for System Buys
-                    UserEntity botUser = userRepository.findByUsername("vestoria")
-                            .orElseThrow(() -> new ResourceNotFoundException("vestoria user not found"));
 
                     // Record Transaction
-                    TransactionEntity transaction = TransactionEntity.builder().type(TransactionType.SYSTEM_SELL)
+                    transactions.add(TransactionEntity.builder().type(TransactionType.SYSTEM_SELL)
                             .buyer(botUser) // System (Bot) is buyer
-                            .seller(owner).marketItem(null) // Direct sale
+                            .seller(shop.getOwner()).marketItem(null) // Direct sale
                             .price(totalEarnings).amount(quantityToBuy).itemName(item.getName()) // Store item name
-                            .build();
-                    transactionRepository.save(transaction);
+                            .build());
+                    eventPublisher.publishEvent(new TradeExecutedEvent(TransactionType.SYSTEM_SELL, item.getName(),
+                            quantityToBuy, pricePerUnit, LocalDateTime.now()));
+                    soldItemNames.add(item.getName());
 
                     // Add to summary
                     salesSummary.append(String.format("%d adet %s, ", quantityToBuy, item.getName(), finalScore));
-                } else {
-                    // Just save the score if we didn't buy anything
-                    itemRepository.save(item);
                 }
             }
         }
 
+        // One write per kind for the whole shop: a single credit and XP update, and the
+        // transaction rows as one JDBC batch
+        if (soldQuantity > 0) {
+            UserEntity owner = shop.getOwner();
+            ledgerService.transfer(LedgerAccount.system(SystemAccount.NPC_MARKET), LedgerAccount.user(owner.getId()),
+                    totalBatchEarnings, LedgerReason.SHOP_SALE, shop.getId());
+            userService.addXp(owner, soldQuantity * 10L); // 10 XP per item
+            transactionRepository.saveAll(transactions);
+            marketCacheService.evictItems(soldItemNames);
+        }
+        randomOutcomeRepository.saveAll(outcomes);
+
         // Send summary notification if any sales occurred
         if (totalBatchEarnings.compareTo(BigDecimal.ZERO) > 0) {
             String summary = salesSummary.toString();
@@ -177,7 +222,7 @@ public class BotService {
             }
             String notificationMessage = String.format("%s dükkanında satış yapıldı: %s. Toplam Kazanç: %s",
                     shop.getName(), summary, totalBatchEarnings);
-            notificationService.createNotification(shop.getOwner(), notificationMessage);
+            outboxService.notifyUser(shop.getOwner(), notificationMessage);
         }
 
         // Reset shop status
@@ -5,6 +5,7 @@ import io.vestoria.converter.BuildingConverter;
 import io.vestoria.dto.response.BuildingConfigDto;
 import io.vestoria.entity.BuildingEntity;
 import io.vestoria.entity.ItemEntity;
+import io.vestoria.entity.RandomOutcomeEntity;
 import io.vestoria.entity.UserEntity;
 import io.vestoria.enums.BuildingStatus;
 import io.vestoria.enums.BuildingSubType;
@@ -12,13 +13,16 @@ import io.vestoria.enums.BuildingTier;
 import io.vestoria.enums.BuildingType;
 import io.vestoria.enums.ItemTier;
 import io.vestoria.enums.ItemUnit;
+import io.vestoria.enums.LedgerReason;
+import io.vestoria.enums.RandomOutcomeType;
+import io.vestoria.enums.SystemAccount;
 import io.vestoria.exception.BusinessRuleException;
-import io.vestoria.exception.InsufficientBalanceException;
 import io.vestoria.exception.ResourceNotFoundException;
 import io.vestoria.exception.UnauthorizedAccessException;
 import io.vestoria.repository.BuildingRepository;
 import io.vestoria.repository.ItemRepository;
 import io.vestoria.repository.MarketRepository;
+import io.vestoria.repository.RandomOutcomeRepository;
 import io.vestoria.repository.UserRepository;
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -37,6 +41,10 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class BuildingService {
 
+    // Streams of a production seed: quality is drawn at start, quantity at collection
+    private static final int QUALITY_STREAM = 0;
+    private static final int QUANTITY_STREAM = 1;
+
     private final BuildingRepository buildingRepository;
     private final UserRepository userRepository;
     private final BuildingConverter buildingConverter;
@@ -44,6 +52,9 @@ public class BuildingService {
     private final MarketRepository marketRepository;
     private final InventoryService inventoryService;
     private final ItemRepository itemRepository;
+    private final LedgerService ledgerService;
+    private final RandomService randomService;
+    private final RandomOutcomeRepository randomOutcomeRepository;
 
     @Transactional
     public void startSales(@NonNull UUID buildingId, @NonNull String username, Map<String, Integer> itemPrices) {
@@ -86,6 +97,7 @@ public class BuildingService {
         building.setIsSelling(true);
         float duration = getProductionDuration(building.getType(), building.getTier());
         building.setSalesEndsAt(LocalDateTime.now().plusSeconds((long) (duration * 60)));
+        building.setSalesSeed(randomService.seedFor(building.getId(), building.getSalesEndsAt()));
         buildingRepository.save(building);
     }
 
@@ -163,7 +175,8 @@ public class BuildingService {
         }
 
         // Luck factor for quality: -10 to +10
-        double qualityLuck = (Math.random() * 20) - 10;
+        long seed = randomService.seedFor(building.getId(), LocalDateTime.now());
+        double qualityLuck = randomService.forSeed(seed, QUALITY_STREAM).nextDouble(-10, 10);
         qualityScore = qualityScore.add(BigDecimal.valueOf(qualityLuck));
 
         // Level factor for quality: +0.2 per level
@@ -230,7 +243,11 @@ public class BuildingService {
 
         building.setIsProducing(true);
         building.setProductionEndsAt(LocalDateTime.now().plusSeconds(seconds));
+        building.setProductionSeed(seed);
         buildingRepository.save(building);
+        randomOutcomeRepository.save(RandomOutcomeEntity.builder().type(RandomOutcomeType.PRODUCTION_QUALITY)
+                .buildingId(building.getId()).itemName(item.getName()).seed(seed).stream(QUALITY_STREAM)
+                .luck(qualityLuck).ownerLevel(userLevel).result(finalQuality).build());
     }
 
     @Transactional
@@ -263,8 +280,11 @@ public class BuildingService {
 
         int baseQuantity = building.getProductionRate().intValue();
 
-        // Luck factor for quantity: 0.90 to 1.15 (-10% to +15%)
-        double luck = 0.90 + (Math.random() * 0.25);
+        // Luck factor for quantity: 0.90 to 1.15 (-10% to +15%), from the seed drawn when production started
+        if (building.getProductionSeed() == null) {
+            building.setProductionSeed(randomService.seedFor(building.getId(), building.getProductionEndsAt()));
+        }
+        double luck = randomService.forSeed(building.getProductionSeed(), QUANTITY_STREAM).nextDouble(0.90, 1.15);
 
         // Level factor for quantity: +1% per level
         int userLevel = building.getOwner().getLevel() != null ? building.getOwner().getLevel() : 1;
@@ -275,6 +295,11 @@ public class BuildingService {
         if (quantity < 1)
             quantity = 1;
 
+        randomOutcomeRepository.save(RandomOutcomeEntity.builder().type(RandomOutcomeType.PRODUCTION_QUANTITY)
+                .buildingId(building.getId()).itemName(item.getName()).seed(building.getProductionSeed())
+                .stream(QUANTITY_STREAM).luck(luck).ownerLevel(userLevel).result(BigDecimal.valueOf(quantity))
+                .baseQuantity(baseQuantity).build());
+
         item.setQuantity(item.getQuantity() + quantity);
         item.setIsProducing(false);
 
@@ -368,23 +393,15 @@ public class BuildingService {
                 .findFirst()
                 .orElseThrow(() -> new ResourceNotFoundException("Ürün bulunamadı"));
 
-        if (item.getQuantity() < quantity) {
+        // Decrease building stock, failing if it no longer holds the quantity
+        if (itemRepository.decrementIfAtLeast(itemId, quantity, LocalDateTime.now()) == 0) {
             throw new BusinessRuleException("En fazla işletmenizde var olan miktar kadar transfer yapabilirsiniz.");
         }
 
-        // Decrease building stock
-        item.setQuantity(item.getQuantity() - quantity);
-
         // Add to user inventory
         inventoryService.addItemToInventory(user, item.getName(), quantity, item.getUnit(), item.getTier(),
                 item.getQualityScore());
-
-        if (item.getQuantity() == 0) {
-            building.getItems().remove(item);
-            itemRepository.delete(item);
-        }
-
-        buildingRepository.save(building);
+        itemRepository.deleteIfEmpty(itemId);
     }
 
     @Transactional
@@ -433,19 +450,15 @@ public class BuildingService {
         // Calculate cost based on tier
         BigDecimal cost = getBuildingCost(type, tier);
 
-        if (owner.getBalance().compareTo(cost) < 0) {
-            throw new InsufficientBalanceException("Yetersiz bakiye! Bu işlem için " + cost + " TL gerekiyor.");
-        }
-
-        owner.setBalance(owner.getBalance().subtract(cost));
-        userRepository.save(owner);
-
         BuildingEntity building = BuildingEntity.builder().owner(owner).name(name).type(type).tier(tier)
                 .subType(subType) // Can be null for non-SHOP
                 .productionRate(getProductionRate(type, tier)).maxSlots(getMaxSlots(tier)).status(BuildingStatus.ACTIVE)
                 .cost(cost).maxStock(getStorageCapacity(type, tier)).build();
+        building = buildingRepository.save(building);
 
-        return buildingRepository.save(building);
+        ledgerService.transfer(LedgerAccount.user(owner.getId()), LedgerAccount.system(SystemAccount.CONSTRUCTION),
+                cost, LedgerReason.BUILDING_CONSTRUCTION, building.getId());
+        return building;
     }
 
     @Transactional
@@ -480,12 +493,8 @@ public class BuildingService {
         BigDecimal upgradeCost = new BigDecimal("15000");
         UserEntity user = building.getOwner();
 
-        if (user.getBalance().compareTo(upgradeCost) < 0) {
-            throw new InsufficientBalanceException("Yetersiz bakiye! Yükseltme için 15,000 TL gerekiyor.");
-        }
-
-        user.setBalance(user.getBalance().subtract(upgradeCost));
-        userRepository.save(user);
+        ledgerService.transfer(LedgerAccount.user(user.getId()), LedgerAccount.system(SystemAccount.CONSTRUCTION),
+                upgradeCost, LedgerReason.BUILDING_UPGRADE, building.getId());
 
         int nextLevel = building.getTier().value + 1;
         building.setTier(BuildingTier.fromValue(nextLevel));
@@ -538,9 +547,8 @@ public class BuildingService {
         }
 
         // Refund to user
-        UserEntity user = building.getOwner();
-        user.setBalance(user.getBalance().add(refund));
-        userRepository.save(user);
+        ledgerService.transfer(LedgerAccount.system(SystemAccount.CONSTRUCTION),
+                LedgerAccount.user(building.getOwner().getId()), refund, LedgerReason.BUILDING_REFUND, building.getId());
 
         // Delete building
         buildingRepository.delete(building);
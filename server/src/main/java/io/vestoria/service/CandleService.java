@@ -0,0 +1,173 @@
+package io.vestoria.service;
+
+import io.vestoria.dto.response.PriceCandleDto;
+import io.vestoria.entity.PriceCandleEntity;
+import io.vestoria.enums.CandleResolution;
+import io.vestoria.event.TradeExecutedEvent;
+import io.vestoria.exception.BusinessRuleException;
+import io.vestoria.repository.PriceCandleRepository;
+import jakarta.annotation.PreDestroy;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Streams committed trades into 1m / 1h / 1d OHLCV candles. Trades are folded
+ * into partial candles in memory and merged into {@code price_candles} on a
+ * short cadence, so a burst of fills costs one upsert per bucket.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CandleService {
+
+    private static final int MAX_CANDLES = 1000;
+    private static final int DEFAULT_CANDLES = 100;
+
+    private final PriceCandleRepository candleRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    private Map<CandleKey, PartialCandle> pending = new HashMap<>();
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeExecuted(TradeExecutedEvent event) {
+        if (event.itemName() == null || event.unitPrice() == null || event.quantity() <= 0) {
+            return;
+        }
+        synchronized (this) {
+            for (CandleResolution resolution : CandleResolution.values()) {
+                CandleKey key = new CandleKey(event.itemName(), resolution,
+                        resolution.bucketStart(event.executedAt()));
+                pending.computeIfAbsent(key, k -> new PartialCandle(event.unitPrice())).add(event.unitPrice(),
+                        event.quantity());
+            }
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${vestoria.candles.flush-ms:5000}")
+    @PreDestroy
+    public void flush() {
+        Map<CandleKey, PartialCandle> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new HashMap<>();
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> batch.forEach((key, candle) -> candleRepository.merge(
+                    key.itemName(), key.resolution().name(), key.bucketStart(), candle.open, candle.high, candle.low,
+                    candle.close, candle.volume, candle.trades)));
+        } catch (RuntimeException e) {
+            restore(batch);
+            log.warn("Failed to merge {} partial candles, retrying on next flush: {}", batch.size(), e.getMessage());
+            return;
+        }
+        log.debug("Merged {} partial candles", batch.size());
+    }
+
+    // Puts a batch that failed to merge back in front of the trades folded in since
+    private synchronized void restore(Map<CandleKey, PartialCandle> batch) {
+        batch.forEach((key, candle) -> pending.merge(key, candle, (later, earlier) -> earlier.followedBy(later)));
+    }
+
+    /**
+     * Candles in {@code [from, to)}. Defaults to the last 100 buckets up to now.
+     */
+    public List<PriceCandleDto> getCandles(String itemName, String resolutionCode, LocalDateTime from,
+            LocalDateTime to) {
+        CandleResolution resolution;
+        try {
+            resolution = CandleResolution.fromCode(resolutionCode);
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Geçersiz zaman aralığı: " + resolutionCode);
+        }
+        LocalDateTime end = to != null ? to : LocalDateTime.now();
+        LocalDateTime start = from != null ? from : end.minus(DEFAULT_CANDLES, resolution.getUnit());
+        if (!start.isBefore(end)) {
+            throw new BusinessRuleException("Başlangıç zamanı bitişten önce olmalı");
+        }
+
+        return candleRepository.findRange(itemName, resolution, resolution.bucketStart(start), end,
+                PageRequest.of(0, MAX_CANDLES)).stream().map(this::toDto).collect(Collectors.toList());
+    }
+
+    /**
+     * Percentage change over the last 24 hours from hourly candles, first open
+     * to last close. Empty if the item did not trade.
+     */
+    public Optional<Double> getDayChangePercent(String itemName) {
+        LocalDateTime now = LocalDateTime.now();
+        List<PriceCandleEntity> hours = candleRepository.findRange(itemName, CandleResolution.H1,
+                CandleResolution.H1.bucketStart(now.minusHours(23)), now.plusHours(1), PageRequest.of(0, 24));
+        if (hours.isEmpty() || hours.get(0).getOpen().signum() == 0) {
+            return Optional.empty();
+        }
+        BigDecimal open = hours.get(0).getOpen();
+        BigDecimal close = hours.get(hours.size() - 1).getClose();
+        return Optional.of(close.subtract(open).doubleValue() / open.doubleValue() * 100.0);
+    }
+
+    public void deleteBefore(CandleResolution resolution, LocalDateTime before) {
+        int deleted = candleRepository.deleteByResolutionAndBucketStartBefore(resolution, before);
+        log.info("Deleted {} {} candles older than {}", deleted, resolution.getCode(), before);
+    }
+
+    private PriceCandleDto toDto(PriceCandleEntity candle) {
+        return PriceCandleDto.builder().bucketStart(candle.getBucketStart()).open(candle.getOpen())
+                .high(candle.getHigh()).low(candle.getLow()).close(candle.getClose()).volume(candle.getVolume())
+                .tradeCount(candle.getTradeCount()).build();
+    }
+
+    private record CandleKey(String itemName, CandleResolution resolution, LocalDateTime bucketStart) {
+    }
+
+    private static final class PartialCandle {
+        private final BigDecimal open;
+        private BigDecimal high;
+        private BigDecimal low;
+        private BigDecimal close;
+        private long volume;
+        private int trades;
+
+        PartialCandle(BigDecimal open) {
+            this.open = open;
+            this.high = open;
+            this.low = open;
+            this.close = open;
+        }
+
+        void add(BigDecimal price, int quantity) {
+            high = high.max(price);
+            low = low.min(price);
+            close = price;
+            volume += quantity;
+            trades++;
+        }
+
+        /**
+         * This candle extended by the trades of a later one for the same bucket.
+         */
+        PartialCandle followedBy(PartialCandle later) {
+            PartialCandle combined = new PartialCandle(open);
+            combined.high = high.max(later.high);
+            combined.low = low.min(later.low);
+            combined.close = later.close;
+            combined.volume = volume + later.volume;
+            combined.trades = trades + later.trades;
+            return combined;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package io.vestoria.service;
 
+import io.vestoria.enums.CandleResolution;
 import io.vestoria.repository.MarketRepository;
 import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
@@ -14,6 +15,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class CleanupService {
 
     private final MarketRepository marketRepository;
+    private final CandleService candleService;
 
     /**
      * Clean up inactive market listings older than 24 hours Runs every day at 03:00
@@ -28,4 +30,16 @@ public class CleanupService {
         log.info("Inactive market listings cleanup completed.");
     }
 
+    /**
+     * Keeps the candle table compact: minute candles for 7 days, hourly candles
+     * for 180 days, daily candles forever. Runs every day at 03:30 AM
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    @Transactional
+    public void cleanOldCandles() {
+        LocalDateTime now = LocalDateTime.now();
+        candleService.deleteBefore(CandleResolution.M1, now.minusDays(7));
+        candleService.deleteBefore(CandleResolution.H1, now.minusDays(180));
+    }
+
 }
@@ -0,0 +1,67 @@
+package io.vestoria.service;
+
+import io.vestoria.dto.response.MinuteVolumeDto;
+import io.vestoria.event.TradeExecutedEvent;
+import io.vestoria.repository.TransactionRepository;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Rolling 24h traded volume per item, answered from minute buckets instead of
+ * summing {@code market_transactions}. Fed by {@link TradeExecutedEvent} after
+ * commit and rebuilt from the table on startup.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DemandCounterService {
+
+    private final DemandCounterStore store;
+    private final TransactionRepository transactionRepository;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void rebuild() {
+        long now = epochMinute(LocalDateTime.now());
+        List<MinuteVolumeDto> rows = transactionRepository
+                .sumAmountByItemNameAndMinuteSince(LocalDateTime.now().minusMinutes(DemandCounterStore.WINDOW_MINUTES));
+
+        Map<String, Map<Long, Long>> volumes = new HashMap<>();
+        rows.forEach(row -> volumes.computeIfAbsent(row.getItemName(), name -> new HashMap<>())
+                .merge(epochMinute(row.getMinute()), row.getVolume(), Long::sum));
+
+        if (store.rebuild(volumes, now)) {
+            log.info("Demand counters rebuilt for {} items from {} minute buckets", volumes.size(), rows.size());
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTradeExecuted(TradeExecutedEvent event) {
+        if (event.itemName() == null || event.quantity() <= 0) {
+            return;
+        }
+        store.add(event.itemName(), epochMinute(event.executedAt()), event.quantity());
+    }
+
+    public long getVolumeSince(String itemName, LocalDateTime since) {
+        return store.volumeSince(itemName, epochMinute(since), epochMinute(LocalDateTime.now()));
+    }
+
+    public long getVolume24h(String itemName) {
+        return getVolumeSince(itemName, LocalDateTime.now().minusMinutes(DemandCounterStore.WINDOW_MINUTES - 1));
+    }
+
+    private static long epochMinute(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 60;
+    }
+}
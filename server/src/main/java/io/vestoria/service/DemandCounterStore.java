@@ -0,0 +1,27 @@
+package io.vestoria.service;
+
+import java.util.Map;
+
+/**
+ * Per-item traded volume in one-minute buckets covering the last
+ * {@link #WINDOW_MINUTES} minutes. Minutes are epoch minutes.
+ */
+public interface DemandCounterStore {
+
+    int WINDOW_MINUTES = 24 * 60;
+
+    void add(String itemName, long minute, long quantity);
+
+    /**
+     * Sum of the buckets from {@code fromMinute} up to and including
+     * {@code nowMinute}.
+     */
+    long volumeSince(String itemName, long fromMinute, long nowMinute);
+
+    /**
+     * Replaces the contents with volumes rebuilt from the database, keyed by
+     * item name and then minute. Returns false if the store was already
+     * populated (e.g. a shared store another node has filled).
+     */
+    boolean rebuild(Map<String, Map<Long, Long>> volumes, long nowMinute);
+}
@@ -1,33 +1,35 @@
 package io.vestoria.service;
 
 import io.vestoria.constant.Constants;
-import io.vestoria.repository.MarketRepository;
-import io.vestoria.repository.TransactionRepository;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
-import java.time.LocalDateTime;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 @Service
 @RequiredArgsConstructor
 public class EconomicService {
 
-    private final MarketRepository marketRepository;
-    private final TransactionRepository transactionRepository;
+    private final MarketStatsService marketStatsService;
+    private final DemandCounterService demandCounterService;
 
-    @Cacheable(value = "marketPrices", key = "#itemName", unless = "#result == null")
+    /**
+     * Computes a single item's price from live supply and demand. Regular
+     * readers should go through {@link PriceOracleService}, which serves a
+     * periodically refreshed snapshot.
+     */
     public BigDecimal getMarketPrice(String itemName) {
-        BigDecimal basePrice = Constants.BASE_PRICES.getOrDefault(itemName, BigDecimal.valueOf(10));
-
         // 1. Calculate Supply (Total Active Quantity)
-        long activeSupply = marketRepository.sumActiveQuantityByItemName(itemName);
+        long activeSupply = marketStatsService.getActiveQuantity(itemName);
 
         // 2. Calculate Demand (Sales Volume in last 24h)
-        LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
-        Integer demandVolume = transactionRepository.sumByItemNameAndCreatedAtAfter(itemName, twentyFourHoursAgo);
-        long activeDemand = demandVolume != null ? demandVolume.longValue() : 0L;
+        long activeDemand = demandCounterService.getVolume24h(itemName);
+
+        return calculatePrice(itemName, activeSupply, activeDemand);
+    }
+
+    public BigDecimal calculatePrice(String itemName, long activeSupply, long activeDemand) {
+        BigDecimal basePrice = Constants.BASE_PRICES.getOrDefault(itemName, BigDecimal.valueOf(10));
 
         // Base demand buffer: assume at least 10 units are always needed to prevent /0
         // or huge spikes on low volume
@@ -0,0 +1,73 @@
+package io.vestoria.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Node-local ring buffers. Only sees trades committed on this node, so use the
+ * Redis store when running more than one instance.
+ */
+@Component
+@ConditionalOnProperty(name = "vestoria.demand.store", havingValue = "memory", matchIfMissing = true)
+public class InMemoryDemandCounterStore implements DemandCounterStore {
+
+    private final ConcurrentMap<String, MinuteRing> rings = new ConcurrentHashMap<>();
+
+    @Override
+    public void add(String itemName, long minute, long quantity) {
+        rings.computeIfAbsent(itemName, name -> new MinuteRing()).add(minute, quantity);
+    }
+
+    @Override
+    public long volumeSince(String itemName, long fromMinute, long nowMinute) {
+        MinuteRing ring = rings.get(itemName);
+        return ring != null ? ring.sum(fromMinute, nowMinute) : 0L;
+    }
+
+    @Override
+    public boolean rebuild(Map<String, Map<Long, Long>> volumes, long nowMinute) {
+        rings.clear();
+        volumes.forEach((itemName, byMinute) -> byMinute.forEach((minute, quantity) -> {
+            if (minute > nowMinute - WINDOW_MINUTES) {
+                add(itemName, minute, quantity);
+            }
+        }));
+        return true;
+    }
+
+    /**
+     * Each slot remembers which minute it holds, so slots left over from a
+     * previous lap are ignored without a sweep.
+     */
+    private static final class MinuteRing {
+        private final long[] minutes = new long[WINDOW_MINUTES];
+        private final long[] volumes = new long[WINDOW_MINUTES];
+
+        MinuteRing() {
+            Arrays.fill(minutes, -1L);
+        }
+
+        synchronized void add(long minute, long quantity) {
+            int slot = (int) (minute % WINDOW_MINUTES);
+            if (minutes[slot] != minute) {
+                minutes[slot] = minute;
+                volumes[slot] = 0L;
+            }
+            volumes[slot] += quantity;
+        }
+
+        synchronized long sum(long fromMinute, long nowMinute) {
+            long total = 0L;
+            for (int slot = 0; slot < WINDOW_MINUTES; slot++) {
+                if (minutes[slot] >= fromMinute && minutes[slot] <= nowMinute) {
+                    total += volumes[slot];
+                }
+            }
+            return total;
+        }
+    }
+}
@@ -13,9 +13,10 @@ import io.vestoria.exception.UnauthorizedAccessException;
 import io.vestoria.repository.BuildingRepository;
 import io.vestoria.repository.ItemRepository;
 import io.vestoria.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import java.math.BigDecimal;
+import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Objects;
 import java.util.UUID;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
@@ -27,6 +28,7 @@ import org.springframework.transaction.annotation.Transactional;
 public class InventoryService {
 
     private final ItemRepository itemRepository;
+    private final EntityManager entityManager;
     private final UserRepository userRepository;
     private final BuildingRepository buildingRepository;
 
@@ -116,85 +118,45 @@ public class InventoryService {
             throw new BadRequestException("Geçersiz miktar");
         }
 
-        // Check for mergeable item
-        ItemEntity existingItem = building.getItems().stream().filter(i -> {
-            boolean nameMatch = i.getName().trim().equalsIgnoreCase(item.getName().trim());
-            boolean qualityMatch = i.getQualityScore().compareTo(item.getQualityScore()) == 0;
-            return nameMatch && qualityMatch;
-        }).findFirst().orElse(null);
-
-        if (existingItem != null) {
-            // Merge into existing item
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-            ItemEntity savedExisting = itemRepository.save(existingItem);
-
-            if (quantity < item.getQuantity()) {
-                // Partial transfer
-                item.setQuantity(item.getQuantity() - quantity);
-                itemRepository.save(item);
-            } else {
-                // Full transfer - delete source item
-                itemRepository.delete(item);
-            }
-            return savedExisting;
-        } else {
-            // Check building capacity (Slots) - Only if we are creating a new item
-            // Check if this new item adds a new product type (slot usage)
-            List<ItemEntity> currentItems = building.getItems();
-            long distinctProductTypeCount = currentItems.stream()
-                    .map(i -> i.getName().trim().toLowerCase())
-                    .distinct()
-                    .count();
-
-            // If the item we are adding is NOT already in the list (by name), we need a new
-            // slot
-            boolean isNewType = currentItems.stream()
-                    .noneMatch(i -> i.getName().trim().equalsIgnoreCase(item.getName().trim()));
-
-            if (isNewType && distinctProductTypeCount >= building.getMaxSlots()) {
+        // Slots count distinct product types, so only a new type can run out of them
+        List<ItemEntity> currentItems = building.getItems();
+        boolean isNewType = currentItems.stream()
+                .noneMatch(i -> i.getName().trim().equalsIgnoreCase(item.getName().trim()));
+        if (isNewType) {
+            long distinctProductTypeCount = currentItems.stream().map(i -> i.getName().trim().toLowerCase())
+                    .distinct().count();
+            if (distinctProductTypeCount >= building.getMaxSlots()) {
                 throw new BadRequestException(
                         "Bina slot kapasitesi dolu (" + building.getMaxSlots() + " farklı ürün çeşidi)");
             }
+        }
 
-            // If transferring partial quantity, split the item
-            if (quantity < item.getQuantity()) {
-                // Reduce original item quantity
-                item.setQuantity(item.getQuantity() - quantity);
-                itemRepository.save(item);
-
-                // Create new item for building
-                ItemEntity newItem = Objects.requireNonNull(ItemEntity.builder().name(item.getName())
-                        .unit(item.getUnit()).price(item.getPrice()).cost(item.getCost()) // Copy cost
-                        .quantity(quantity).qualityScore(item.getQualityScore()).tier(item.getTier()).building(building)
-                        .owner(user).build());
-                return itemRepository.save(newItem);
-            } else {
-                // Transfer entire item
-                item.setBuilding(building);
-                return itemRepository.save(item);
-            }
+        // Take from the source stack, failing if a concurrent change left too little
+        LocalDateTime now = LocalDateTime.now();
+        if (itemRepository.decrementIfAtLeast(itemId, quantity, now) == 0) {
+            throw new BadRequestException("Geçersiz miktar");
         }
+        itemRepository.upsertStack(user.getId(), buildingId, item.getName(), nameOf(item.getUnit()),
+                nameOf(item.getTier()), item.getQualityScore(), item.getPrice(), item.getCost(), quantity, now);
+        itemRepository.deleteIfEmpty(itemId);
+
+        ItemEntity stack = itemRepository.findByOwnerIdAndBuildingIdAndNameAndQualityScore(user.getId(), buildingId,
+                item.getName(), item.getQualityScore())
+                .orElseThrow(() -> new ResourceNotFoundException("Ürün bulunamadı"));
+        // The stack may have been loaded with the building before the upsert changed it
+        entityManager.refresh(stack);
+        return stack;
     }
 
     @Transactional
     public void addItemToInventory(UserEntity user, String productName, int quantity, ItemUnit unit, ItemTier tier,
             BigDecimal qualityScore) {
-        // Check if item already exists in centralized inventory (building is null)
-        ItemEntity existingItem = itemRepository.findAllByOwner_UsernameAndBuildingIsNull(user.getUsername()).stream()
-                .filter(i -> {
-                    boolean nameMatch = i.getName().trim().equalsIgnoreCase(productName.trim());
-                    boolean qualityMatch = i.getQualityScore().compareTo(qualityScore) == 0;
-                    return nameMatch && qualityMatch;
-                }).findFirst().orElse(null);
-
-        if (existingItem != null) {
-            existingItem.setQuantity(existingItem.getQuantity() + quantity);
-            itemRepository.save(existingItem);
-        } else {
-            ItemEntity newItem = ItemEntity.builder().name(productName).quantity(quantity).unit(unit).tier(tier)
-                    .qualityScore(qualityScore).owner(user).building(null) // Centralized inventory
-                    .build();
-            ItemEntity saved = itemRepository.save(newItem);
-        }
+        // Centralized inventory is the stack without a building
+        itemRepository.upsertStack(user.getId(), null, productName.trim(), nameOf(unit), nameOf(tier), qualityScore,
+                null, null, quantity, LocalDateTime.now());
+    }
+
+    private static String nameOf(Enum<?> value) {
+        return value == null ? null : value.name();
     }
 }
@@ -0,0 +1,123 @@
+package io.vestoria.service;
+
+import io.vestoria.constant.Constants;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Stream;
+import org.springframework.stereotype.Service;
+
+/**
+ * In-process trigram index over the item catalog in {@link Constants}. Search
+ * terms are resolved to exact item names here so listing queries can filter
+ * with {@code IN} on the indexed name column instead of a leading-wildcard
+ * {@code LIKE}.
+ */
+@Service
+public class ItemSearchService {
+
+    private static final int GRAM = 3;
+    private static final Locale TR = Locale.forLanguageTag("tr");
+
+    private final Map<String, String> foldedNames = new HashMap<>();
+    private final Map<String, Set<String>> postings = new HashMap<>();
+
+    public ItemSearchService() {
+        Stream.of(Constants.GARDEN_ITEMS.stream(), Constants.FARM_ITEMS.stream(), Constants.MINE_ITEMS.stream(),
+                Constants.FACTORY_MAP.keySet().stream(),
+                Constants.FACTORY_MAP.values().stream().flatMap(List::stream), Constants.MARKET_ITEMS.stream(),
+                Constants.GREENGROCER_ITEMS.stream(), Constants.CLOTHING_ITEMS.stream(),
+                Constants.JEWELER_ITEMS.stream(), Constants.BASE_PRICES.keySet().stream()).flatMap(s -> s)
+                .distinct().forEach(this::add);
+    }
+
+    /**
+     * Returns the catalog item names containing the term, ignoring case and
+     * Turkish diacritics ("cikolata" finds "Çikolata").
+     */
+    public Set<String> resolve(String term) {
+        String folded = fold(term);
+        if (folded.isEmpty()) {
+            return Collections.emptySet();
+        }
+
+        Set<String> candidates;
+        if (folded.length() < GRAM) {
+            // Too short for a trigram; the catalog is small enough to scan
+            candidates = foldedNames.keySet();
+        } else {
+            candidates = null;
+            for (String gram : grams(folded)) {
+                Set<String> posting = postings.getOrDefault(gram, Collections.emptySet());
+                if (candidates == null || posting.size() < candidates.size()) {
+                    candidates = intersect(posting, candidates);
+                } else {
+                    candidates = intersect(candidates, posting);
+                }
+                if (candidates.isEmpty()) {
+                    return Collections.emptySet();
+                }
+            }
+        }
+
+        // Trigram hits are candidates only; confirm the substring
+        Set<String> names = new TreeSet<>();
+        for (String candidate : candidates) {
+            if (candidate.contains(folded)) {
+                names.add(foldedNames.get(candidate));
+            }
+        }
+        return names;
+    }
+
+    private void add(String name) {
+        String folded = fold(name);
+        foldedNames.put(folded, name);
+        for (String gram : grams(folded)) {
+            postings.computeIfAbsent(gram, g -> new HashSet<>()).add(folded);
+        }
+    }
+
+    private static Set<String> intersect(Set<String> smaller, Set<String> other) {
+        Set<String> result = new HashSet<>();
+        for (String value : smaller) {
+            if (other == null || other.contains(value)) {
+                result.add(value);
+            }
+        }
+        return result;
+    }
+
+    private static Set<String> grams(String folded) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM <= folded.length(); i++) {
+            grams.add(folded.substring(i, i + GRAM));
+        }
+        return grams;
+    }
+
+    static String fold(String value) {
+        if (value == null) {
+            return "";
+        }
+        String lower = value.trim().toLowerCase(TR);
+        StringBuilder folded = new StringBuilder(lower.length());
+        for (char c : lower.toCharArray()) {
+            folded.append(switch (c) {
+                case 'ç' -> 'c';
+                case 'ğ' -> 'g';
+                case 'ı' -> 'i';
+                case 'ö' -> 'o';
+                case 'ş' -> 's';
+                case 'ü' -> 'u';
+                default -> c;
+            });
+        }
+        return folded.toString();
+    }
+}
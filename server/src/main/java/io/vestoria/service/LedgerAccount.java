@@ -0,0 +1,22 @@
+package io.vestoria.service;
+
+import io.vestoria.enums.SystemAccount;
+import java.util.UUID;
+
+/**
+ * Side of a ledger transfer: a user's balance or a system account.
+ */
+public record LedgerAccount(UUID userId, SystemAccount system) {
+
+    public static LedgerAccount user(UUID userId) {
+        return new LedgerAccount(userId, null);
+    }
+
+    public static LedgerAccount system(SystemAccount system) {
+        return new LedgerAccount(null, system);
+    }
+
+    public boolean isUser() {
+        return userId != null;
+    }
+}
@@ -0,0 +1,59 @@
+package io.vestoria.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vestoria.dto.response.LedgerMismatchDto;
+import io.vestoria.repository.LedgerEntryRepository;
+import jakarta.annotation.PostConstruct;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Periodically checks the ledger against the balances: every user's balance
+ * (snapshot plus pending credits) must equal the sum of their entries, and
+ * every transfer must net to zero. Results are logged and exported as gauges.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerReconciliationService {
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final MeterRegistry meterRegistry;
+
+    private final AtomicLong accountMismatches = new AtomicLong();
+    private final AtomicLong unbalancedTransfers = new AtomicLong();
+
+    @PostConstruct
+    public void registerGauges() {
+        Gauge.builder("ledger.reconciliation.account.mismatches", accountMismatches, AtomicLong::get)
+                .description("Users whose balance differs from their ledger entries").register(meterRegistry);
+        Gauge.builder("ledger.reconciliation.unbalanced.transfers", unbalancedTransfers, AtomicLong::get)
+                .description("Transfers whose legs do not sum to zero").register(meterRegistry);
+    }
+
+    // One snapshot for both checks, so in-flight transfers are either fully seen or not at all
+    @Scheduled(cron = "${vestoria.ledger.reconcile-cron:0 15 * * * ?}")
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ)
+    public void reconcile() {
+        List<LedgerMismatchDto> mismatches = ledgerEntryRepository.findAccountMismatches();
+        for (LedgerMismatchDto mismatch : mismatches) {
+            log.warn("Ledger mismatch for {} ({}): balance {} but entries sum to {}", mismatch.getUsername(),
+                    mismatch.getUserId(), mismatch.getBalance(), mismatch.getLedgerBalance());
+        }
+        long unbalanced = ledgerEntryRepository.countUnbalancedTransfers();
+        if (unbalanced > 0) {
+            log.warn("{} ledger transfers do not net to zero", unbalanced);
+        }
+
+        accountMismatches.set(mismatches.size());
+        unbalancedTransfers.set(unbalanced);
+        log.info("Ledger reconciled: {} account mismatches, {} unbalanced transfers", mismatches.size(), unbalanced);
+    }
+}
@@ -0,0 +1,193 @@
+package io.vestoria.service;
+
+import io.vestoria.entity.BalanceCreditEntity;
+import io.vestoria.entity.LedgerEntryEntity;
+import io.vestoria.entity.UserEntity;
+import io.vestoria.enums.LedgerReason;
+import io.vestoria.enums.SystemAccount;
+import io.vestoria.exception.InsufficientBalanceException;
+import io.vestoria.repository.BalanceCreditRepository;
+import io.vestoria.repository.LedgerEntryRepository;
+import io.vestoria.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Double-entry ledger for every balance movement. {@code users.balance} is a
+ * running snapshot and {@code balance_credits} its tail:
+ * <ul>
+ * <li>debits are one conditional UPDATE on the snapshot, after folding the
+ * payer's tail, so they can never overdraw;</li>
+ * <li>credits only insert into the tail, folded into the snapshot in
+ * batches;</li>
+ * <li>both legs of every transfer go to {@code ledger_entries}.</li>
+ * </ul>
+ * Entries and credits are collected per transaction and inserted as one batch
+ * just before commit.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LedgerService {
+
+    private final UserRepository userRepository;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final BalanceCreditRepository balanceCreditRepository;
+
+    @Value("${vestoria.ledger.fold-batch-size:5000}")
+    private int foldBatchSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void openMissingAccounts() {
+        int opened = ledgerEntryRepository.openMissingAccounts();
+        if (opened > 0) {
+            log.info("Opened {} ledger accounts at their current balance", opened / 2);
+        }
+    }
+
+    /**
+     * Records a new account's starting balance.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void openAccount(UserEntity user) {
+        Batch batch = currentBatch();
+        UUID transferId = UUID.randomUUID();
+        batch.entries.add(entry(transferId, LedgerAccount.system(SystemAccount.GENESIS), user.getBalance().negate(),
+                LedgerReason.OPENING_BALANCE, user.getId()));
+        batch.entries.add(entry(transferId, LedgerAccount.user(user.getId()), user.getBalance(),
+                LedgerReason.OPENING_BALANCE, user.getId()));
+    }
+
+    /**
+     * Moves {@code amount} from one account to another. A paying user is
+     * debited immediately and gets {@link InsufficientBalanceException} if the
+     * balance does not cover it; a receiving user is credited through the tail.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transfer(LedgerAccount from, LedgerAccount to, BigDecimal amount, LedgerReason reason,
+            UUID referenceId) {
+        transfer(from, Map.of(to, amount), reason, referenceId);
+    }
+
+    /**
+     * Pays several accounts at once: the payer is debited once with the total
+     * and the transfer gets one leg per payee.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void transfer(LedgerAccount from, Map<LedgerAccount, BigDecimal> to, LedgerReason reason,
+            UUID referenceId) {
+        Map<LedgerAccount, BigDecimal> payees = new LinkedHashMap<>();
+        to.forEach((account, amount) -> {
+            if (amount.signum() > 0) {
+                payees.put(account, amount);
+            }
+        });
+        if (payees.isEmpty()) {
+            return;
+        }
+        BigDecimal total = payees.values().stream().reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Batch batch = currentBatch();
+        if (from.isUser()) {
+            foldOnce(batch, from.userId());
+            if (userRepository.debitIfSufficient(from.userId(), total) == 0) {
+                throw new InsufficientBalanceException("Yetersiz bakiye! Bu işlem için " + total + " TL gerekiyor.");
+            }
+        }
+
+        UUID transferId = UUID.randomUUID();
+        batch.entries.add(entry(transferId, from, total.negate(), reason, referenceId));
+        payees.forEach((account, amount) -> {
+            if (account.isUser()) {
+                batch.credits.add(BalanceCreditEntity.builder().userId(account.userId()).amount(amount).build());
+            }
+            batch.entries.add(entry(transferId, account, amount, reason, referenceId));
+        });
+    }
+
+    /**
+     * The balance a debit from this user would see in the current transaction.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public BigDecimal availableBalance(UUID userId) {
+        foldOnce(currentBatch(), userId);
+        return userRepository.findBalanceById(userId);
+    }
+
+    /**
+     * Snapshot plus tail, i.e. the balance including credits not folded yet.
+     */
+    @Transactional(readOnly = true)
+    public BigDecimal getBalance(UserEntity user) {
+        return user.getBalance().add(balanceCreditRepository.sumPendingByUserId(user.getId()));
+    }
+
+    @Scheduled(fixedDelayString = "${vestoria.ledger.fold-ms:1000}")
+    @Transactional
+    public void foldCredits() {
+        int accounts = balanceCreditRepository.foldBatch(foldBatchSize);
+        if (accounts > 0) {
+            log.debug("Folded pending credits into {} accounts", accounts);
+        }
+    }
+
+    // Fold once per transaction so every committed credit counts towards the debit
+    private void foldOnce(Batch batch, UUID userId) {
+        if (batch.foldedUsers.add(userId)) {
+            balanceCreditRepository.foldUser(userId);
+        }
+    }
+
+    private LedgerEntryEntity entry(UUID transferId, LedgerAccount account, BigDecimal amount, LedgerReason reason,
+            UUID referenceId) {
+        return LedgerEntryEntity.builder().transferId(transferId).userId(account.userId())
+                .systemAccount(account.system()).amount(amount).reason(reason).referenceId(referenceId).build();
+    }
+
+    private Batch currentBatch() {
+        Batch batch = (Batch) TransactionSynchronizationManager.getResource(this);
+        if (batch == null) {
+            Batch created = new Batch();
+            TransactionSynchronizationManager.bindResource(this, created);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    // Written by the commit-time flush as JDBC batches
+                    ledgerEntryRepository.saveAll(created.entries);
+                    balanceCreditRepository.saveAll(created.credits);
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(LedgerService.this);
+                }
+            });
+            batch = created;
+        }
+        return batch;
+    }
+
+    private static class Batch {
+        private final List<LedgerEntryEntity> entries = new ArrayList<>();
+        private final List<BalanceCreditEntity> credits = new ArrayList<>();
+        private final Set<UUID> foldedUsers = new HashSet<>();
+    }
+}
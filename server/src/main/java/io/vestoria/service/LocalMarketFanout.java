@@ -0,0 +1,25 @@
+package io.vestoria.service;
+
+import io.vestoria.dto.response.MarketUpdateDto;
+import java.util.List;
+import java.util.function.Consumer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single-node deployments: there are no other nodes to reach.
+ */
+@Component
+@ConditionalOnProperty(name = "vestoria.websocket.fanout", havingValue = "local", matchIfMissing = true)
+public class LocalMarketFanout implements MarketFanout {
+
+    @Override
+    public void broadcast(List<MarketUpdateDto> updates) {
+        // Nothing to do
+    }
+
+    @Override
+    public void onRemote(Consumer<List<MarketUpdateDto>> handler) {
+        // Nothing ever arrives
+    }
+}
@@ -0,0 +1,61 @@
+package io.vestoria.service;
+
+import java.util.Collection;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Key-scoped invalidation of the per-item market aggregates. A trade only
+ * changes the supply of the traded item, so only that item's entries are
+ * dropped instead of clearing the caches for every item.
+ */
+@Service
+@RequiredArgsConstructor
+public class MarketCacheService {
+
+    public static final String GLOBAL_SUPPLY = "globalSupply";
+
+    // Demand is answered from DemandCounterService and is no longer cached
+    private static final List<String> ITEM_CACHES = List.of(GLOBAL_SUPPLY);
+
+    private final CacheManager cacheManager;
+
+    /**
+     * Evicts the item's aggregates once the current transaction commits, so a
+     * concurrent reader cannot cache the pre-trade value again in between.
+     */
+    public void evictItem(String itemName) {
+        evictItems(List.of(itemName));
+    }
+
+    public void evictItems(Collection<String> itemNames) {
+        if (itemNames.isEmpty()) {
+            return;
+        }
+        List<String> names = List.copyOf(itemNames);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evictNow(names);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evictNow(names);
+            }
+        });
+    }
+
+    private void evictNow(List<String> itemNames) {
+        for (String cacheName : ITEM_CACHES) {
+            Cache cache = cacheManager.getCache(cacheName);
+            if (cache != null) {
+                itemNames.forEach(cache::evict);
+            }
+        }
+    }
+}
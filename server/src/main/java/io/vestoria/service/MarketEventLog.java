@@ -0,0 +1,69 @@
+package io.vestoria.service;
+
+import io.vestoria.dto.response.MarketUpdateDto;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Numbers market updates and keeps the most recent ones for clients that
+ * reconnect. Sequence numbers only mean something on the node and run that
+ * issued them, so every log has a random epoch that clients hand back with
+ * their sequence number; a client that comes back to a different log is
+ * told to reload.
+ */
+@Component
+public class MarketEventLog {
+
+    private final int capacity;
+    private final String epoch = UUID.randomUUID().toString();
+    private final Deque<MarketUpdateDto> events = new ArrayDeque<>();
+    private long lastSeq = System.currentTimeMillis() * 1000;
+
+    public MarketEventLog(@Value("${vestoria.market-updates.log-size:10000}") int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Stamps the update with the next sequence number and records a copy.
+     */
+    public synchronized MarketUpdateDto append(MarketUpdateDto update) {
+        update.setSeq(++lastSeq);
+        events.addLast(update.toBuilder().build());
+        if (events.size() > capacity) {
+            events.removeFirst();
+        }
+        return update;
+    }
+
+    public String epoch() {
+        return epoch;
+    }
+
+    public synchronized long lastSeq() {
+        return lastSeq;
+    }
+
+    /**
+     * Updates after {@code seq}, optionally for one item, or empty when some of
+     * them have already been dropped from the log.
+     */
+    public synchronized Optional<Slice> since(long seq, String itemName) {
+        if (seq >= lastSeq) {
+            return Optional.of(new Slice(lastSeq, List.of()));
+        }
+        if (events.isEmpty() || events.peekFirst().getSeq() > seq + 1) {
+            return Optional.empty();
+        }
+        return Optional.of(new Slice(lastSeq, events.stream().filter(e -> e.getSeq() > seq)
+                .filter(e -> itemName == null || itemName.equals(e.getItemName()))
+                .map(e -> e.toBuilder().build()).toList()));
+    }
+
+    public record Slice(long seq, List<MarketUpdateDto> updates) {
+    }
+}
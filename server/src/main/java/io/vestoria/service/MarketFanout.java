@@ -0,0 +1,23 @@
+package io.vestoria.service;
+
+import io.vestoria.dto.response.MarketUpdateDto;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Carries batches of market updates between application nodes, so clients
+ * connected to any node see trades made on every node. Each node routes the
+ * batches it receives to its own WebSocket subscribers.
+ */
+public interface MarketFanout {
+
+    /**
+     * Sends a batch already delivered locally to the other nodes.
+     */
+    void broadcast(List<MarketUpdateDto> updates);
+
+    /**
+     * Registers the handler for batches that originated on other nodes.
+     */
+    void onRemote(Consumer<List<MarketUpdateDto>> handler);
+}
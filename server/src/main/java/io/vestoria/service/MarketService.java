@@ -1,41 +1,67 @@
 package io.vestoria.service;
 
 import io.vestoria.converter.MarketConverter;
+import io.vestoria.dto.MarketSnapshotDto;
+import io.vestoria.dto.request.BatchBuyRequestDto;
 import io.vestoria.dto.request.BuyItemRequestDto;
 import io.vestoria.dto.request.ListItemRequestDto;
+import io.vestoria.dto.request.PlaceBidRequestDto;
+import io.vestoria.dto.response.BatchBuyResponseDto;
+import io.vestoria.dto.response.CursorPageDto;
+import io.vestoria.dto.response.MarketPricesDto;
 import io.vestoria.dto.response.MarketResponseDto;
-import io.vestoria.dto.response.MarketStatsDto;
+import io.vestoria.dto.response.MarketResyncDto;
 import io.vestoria.dto.response.MarketTrendDto;
 import io.vestoria.dto.response.MarketUpdateDto;
+import io.vestoria.dto.response.PriceCandleDto;
 import io.vestoria.dto.response.TrendingItemDto;
+import io.vestoria.entity.BidOrderEntity;
 import io.vestoria.entity.ItemEntity;
+import io.vestoria.entity.ItemMarketStatsEntity;
 import io.vestoria.entity.MarketEntity;
 import io.vestoria.entity.TransactionEntity;
 import io.vestoria.entity.UserEntity;
+import io.vestoria.enums.BatchBuyMode;
+import io.vestoria.enums.LedgerReason;
+import io.vestoria.enums.ListingSort;
+import io.vestoria.enums.SystemAccount;
 import io.vestoria.enums.TransactionType;
+import io.vestoria.event.TradeExecutedEvent;
 import io.vestoria.exception.BusinessRuleException;
 import io.vestoria.exception.InsufficientBalanceException;
 import io.vestoria.exception.ResourceNotFoundException;
 import io.vestoria.exception.UnauthorizedAccessException;
+import io.vestoria.exception.VestoriaException;
+import io.vestoria.repository.BidOrderRepository;
 import io.vestoria.repository.ItemRepository;
 import io.vestoria.repository.MarketRepository;
 import io.vestoria.repository.TransactionRepository;
 import io.vestoria.repository.UserRepository;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import lombok.RequiredArgsConstructor;
-import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.Cacheable;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -43,21 +69,46 @@ import org.springframework.transaction.annotation.Transactional;
 @RequiredArgsConstructor
 public class MarketService {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+    private static final String CURSOR_SEPARATOR = "_";
+    // Start positions for the first keyset page
+    private static final UUID MIN_UUID = new UUID(0L, 0L);
+    private static final UUID MAX_UUID = new UUID(-1L, -1L);
+    private static final LocalDateTime MAX_CREATED_TIME = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+    private static final double TREND_THRESHOLD_PERCENT = 1.0;
+    private static final int MAX_BATCH_LINES = 50;
+
     private final MarketRepository marketRepository;
     private final ItemRepository itemRepository;
     private final UserRepository userRepository;
     private final TransactionRepository transactionRepository;
-    private final NotificationService notificationService;
     private final MarketConverter marketConverter;
-    private final SimpMessagingTemplate messagingTemplate;
-    private final EconomicService economicService;
+    private final MarketUpdatePublisher marketUpdatePublisher;
+    private final OutboxService outboxService;
+    private final LedgerService ledgerService;
+    private final PriceOracleService priceOracleService;
+    private final OrderBookService orderBookService;
+    private final BidOrderRepository bidOrderRepository;
+    private final ItemSearchService itemSearchService;
+    private final MarketCacheService marketCacheService;
+    private final MarketStatsService marketStatsService;
+    private final DemandCounterService demandCounterService;
+    private final ApplicationEventPublisher eventPublisher;
+    private final CandleService candleService;
 
     public BigDecimal getEstimatedMarketPrice(String itemName) {
-        return economicService.getMarketPrice(itemName);
+        return priceOracleService.getPrice(itemName);
+    }
+
+    public MarketPricesDto getMarketPrices() {
+        return priceOracleService.getSnapshot();
+    }
+
+    public MarketResyncDto getUpdatesSince(Long since, String epoch, String itemName) {
+        return marketUpdatePublisher.resync(since, epoch, itemName);
     }
 
     @Transactional
-    @CacheEvict(value = { "globalDemand", "globalSupply", "activeListings" }, allEntries = true)
     public MarketEntity listItem(UUID userId, UUID itemId, ListItemRequestDto request) {
         UserEntity user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("Kullanıcı bulunamadı"));
@@ -69,56 +120,72 @@ public class MarketService {
             throw new UnauthorizedAccessException("Bu ürün size ait değil");
         }
 
-        if (item.getQuantity() < request.getQuantity()) {
-            throw new BusinessRuleException("Yetersiz ürün miktarı");
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new BusinessRuleException("Geçersiz miktar");
         }
 
         // Deduct items from user inventory (or reserve them)
         // For simplicity, we decrease quantity immediately.
         // If cancelled, we add back.
-        item.setQuantity(item.getQuantity() - request.getQuantity());
-        itemRepository.save(item);
+        if (itemRepository.decrementIfAtLeast(itemId, request.getQuantity(), LocalDateTime.now()) == 0) {
+            throw new BusinessRuleException("Yetersiz ürün miktarı");
+        }
+        marketCacheService.evictItem(item.getName());
+
+        // Sell into standing bids first; only the remainder rests on the book
+        List<PendingBidFill> bidFills = new ArrayList<>();
+        int soldToBids = matchIncomingAsk(user, item, request.getPrice(), request.getQuantity(), bidFills);
+        int openQuantity = request.getQuantity() - soldToBids;
 
         // Check if there is an existing active listing for this user, item and price
-        Optional<MarketEntity> existingListing = marketRepository.findBySellerAndItemNameAndPriceAndIsActiveTrue(user,
+        Optional<MarketEntity> existingListing = marketRepository.findActiveListingForUpdate(user.getId(),
                 item.getName(), request.getPrice());
 
         MarketEntity savedItem;
-        if (existingListing.isPresent()) {
-            // Merge with existing listing
+        if (existingListing.isPresent() && existingListing.get().getItem().getQualityScore()
+                .compareTo(item.getQualityScore()) == 0) {
+            // Merge with existing listing. The row is locked by the lookup, so
+            // concurrent fills wait for this top-up instead of being overwritten.
             MarketEntity listing = existingListing.get();
-            // Optional: Check quality tolerance. For now, we assume if price is same, user
-            // intends to group them.
-            // Or we can check if quality is exactly same.
-            if (listing.getItem().getQualityScore().compareTo(item.getQualityScore()) == 0) {
-                listing.setQuantity(listing.getQuantity() + request.getQuantity());
-                savedItem = marketRepository.save(listing);
-            } else {
-                // Quality mismatch, create new listing
-                MarketEntity marketItem = new MarketEntity();
-                marketItem.setSeller(user);
-                marketItem.setItem(item);
-                marketItem.setPrice(request.getPrice());
-                marketItem.setQuantity(request.getQuantity());
-                marketItem.setIsActive(true);
-                savedItem = marketRepository.save(marketItem);
-            }
+            listing.setQuantity(listing.getQuantity() + openQuantity);
+            savedItem = marketRepository.save(listing);
+            orderBookService.onRestocked(savedItem, openQuantity);
+            marketStatsService.onListed(item.getName(), request.getQuantity(), openQuantity, false);
         } else {
-            // Create New Market Listing
+            // Create New Market Listing (or quality mismatch with the existing one).
+            // A listing fully sold into bids is kept inactive as the record of the fills.
             MarketEntity marketItem = new MarketEntity();
             marketItem.setSeller(user);
             marketItem.setItem(item);
             marketItem.setPrice(request.getPrice());
-            marketItem.setQuantity(request.getQuantity());
-            marketItem.setIsActive(true);
+            marketItem.setQuantity(openQuantity);
+            marketItem.setIsActive(openQuantity > 0);
             savedItem = marketRepository.save(marketItem);
+            if (openQuantity > 0) {
+                orderBookService.onListed(savedItem, openQuantity);
+            }
+            marketStatsService.onListed(item.getName(), request.getQuantity(), openQuantity, true);
+        }
+
+        OrderBook.Ask ask = orderBookService.toAsk(savedItem);
+        for (PendingBidFill fill : bidFills) {
+            OrderBook.Bid bid = fill.bid();
+            // The bid's escrow pays the lister
+            ledgerService.transfer(LedgerAccount.system(SystemAccount.BID_ESCROW), LedgerAccount.user(user.getId()),
+                    bid.maxPrice().multiply(BigDecimal.valueOf(fill.quantity())), LedgerReason.MARKET_TRADE,
+                    savedItem.getId());
+            settleFill(userRepository.getReferenceById(bid.buyerId()), ask, fill.quantity(), bid.maxPrice());
+            outboxService.notifyUser(userRepository.getReferenceById(bid.buyerId()),
+                    String.format("Alış emriniz gerçekleşti: %d adet %s, birim fiyat %s", fill.quantity(),
+                            item.getName(), bid.maxPrice()));
         }
 
-        // Publish WebSocket Event
-        messagingTemplate.convertAndSend("/topic/market",
-                MarketUpdateDto.builder().type("LIST").id(savedItem.getId()).itemName(savedItem.getItem().getName())
-                        .quantity(savedItem.getQuantity()).price(savedItem.getPrice())
-                        .sellerName(savedItem.getSeller().getUsername()).build());
+        if (openQuantity > 0) {
+            // Stage WebSocket event, sent by the outbox relay after commit
+            outboxService.publishMarketUpdate(MarketUpdateDto.builder().type("LIST").id(savedItem.getId())
+                    .itemName(savedItem.getItem().getName()).quantity(savedItem.getQuantity())
+                    .price(savedItem.getPrice()).sellerName(savedItem.getSeller().getUsername()).build());
+        }
 
         return savedItem;
     }
@@ -139,133 +206,330 @@ public class MarketService {
 
     @Transactional
     @SuppressWarnings("null")
-    @CacheEvict(value = { "globalDemand", "globalSupply", "activeListings" }, allEntries = true)
     public void buyItem(UserEntity buyer, UUID marketItemId, BuyItemRequestDto request) {
-        int maxRetries = 3;
-        int attempt = 0;
+        OrderBook.Ask ask = findBuyableAsk(buyer, marketItemId, request.getQuantity());
+        int quantity = request.getQuantity();
+        BigDecimal totalCost = ask.price().multiply(BigDecimal.valueOf(quantity));
 
-        while (attempt < maxRetries) {
-            try {
-                MarketEntity marketItem = marketRepository.findById(marketItemId)
-                        .orElseThrow(() -> new ResourceNotFoundException("Pazar ürünü bulunamadı"));
+        // Pay first: an insufficient balance fails before the book is touched
+        ledgerService.transfer(LedgerAccount.user(buyer.getId()), LedgerAccount.user(ask.sellerId()), totalCost,
+                LedgerReason.MARKET_TRADE, ask.id());
 
-                if (marketItem.getSeller().getId().equals(buyer.getId())) {
-                    throw new BusinessRuleException("Kendi ürününüzü satın alamazsınız");
-                }
+        OrderBook.Ask reserved = fillAsk(ask, quantity);
+        settleFill(buyer, ask, quantity, ask.price());
+        marketStatsService.onFilled(reserved, quantity);
+    }
+
+    /**
+     * Buys from several listings in one transaction. Funds are checked for the
+     * whole batch up front, the buyer is debited once, each seller is credited
+     * and notified once and the item caches are evicted together. In
+     * {@link BatchBuyMode#BEST_EFFORT} lines that cannot be bought are skipped
+     * and reported; otherwise the first such line fails the whole batch.
+     */
+    @Transactional
+    public BatchBuyResponseDto buyBatch(String username, BatchBuyRequestDto request) {
+        List<BatchBuyRequestDto.Line> lines = request.getItems();
+        if (lines == null || lines.isEmpty()) {
+            throw new BusinessRuleException("Satın alınacak ilan seçilmedi");
+        }
+        if (lines.size() > MAX_BATCH_LINES) {
+            throw new BusinessRuleException("Tek seferde en fazla " + MAX_BATCH_LINES + " ilan satın alınabilir");
+        }
+        boolean bestEffort = request.getMode() == BatchBuyMode.BEST_EFFORT;
+        UserEntity buyer = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Kullanıcı bulunamadı: " + username));
 
-                if (!marketItem.getIsActive()) {
-                    throw new BusinessRuleException("Bu ürün artık satışta değil");
+        // Price every line before touching the book, keeping those the balance covers in order
+        List<BatchBuyResponseDto.Line> results = new ArrayList<>();
+        List<OrderBook.Ask> asks = new ArrayList<>();
+        BigDecimal available = ledgerService.availableBalance(buyer.getId());
+        BigDecimal committed = BigDecimal.ZERO;
+        for (BatchBuyRequestDto.Line line : lines) {
+            BatchBuyResponseDto.Line result = BatchBuyResponseDto.Line.builder().listingId(line.getListingId())
+                    .quantity(line.getQuantity()).build();
+            results.add(result);
+            try {
+                OrderBook.Ask ask = findBuyableAsk(buyer, line.getListingId(), line.getQuantity());
+                BigDecimal required = committed.add(ask.price().multiply(BigDecimal.valueOf(line.getQuantity())));
+                if (required.compareTo(available) > 0) {
+                    throw new InsufficientBalanceException("Yetersiz bakiye! Bu işlem için " + required
+                            + " TL gerekiyor.");
+                }
+                committed = required;
+                asks.add(ask);
+            } catch (VestoriaException e) {
+                if (!bestEffort) {
+                    throw e;
                 }
+                result.setMessage(e.getMessage());
+                asks.add(null);
+            }
+        }
 
-                if (marketItem.getQuantity() < request.getQuantity()) {
-                    throw new BusinessRuleException("Pazarda yeterli miktarda ürün yok");
+        Map<LedgerAccount, BigDecimal> proceeds = new LinkedHashMap<>();
+        Map<UUID, List<String>> soldBySeller = new LinkedHashMap<>();
+        Set<String> itemNames = new LinkedHashSet<>();
+        BigDecimal totalCost = BigDecimal.ZERO;
+        // Write through in listing id order, so batches naming the same listings in
+        // another order wait on each other instead of deadlocking
+        List<Integer> fillOrder = IntStream.range(0, lines.size()).filter(i -> asks.get(i) != null).boxed()
+                .sorted(Comparator.comparing(i -> asks.get(i).id())).toList();
+        for (int i : fillOrder) {
+            OrderBook.Ask ask = asks.get(i);
+            BatchBuyResponseDto.Line result = results.get(i);
+            int quantity = lines.get(i).getQuantity();
+            OrderBook.Ask reserved;
+            try {
+                reserved = fillAsk(ask, quantity);
+            } catch (VestoriaException e) {
+                if (!bestEffort) {
+                    throw e;
                 }
+                result.setMessage(e.getMessage());
+                continue;
+            }
 
-                BigDecimal totalCost = marketItem.getPrice().multiply(BigDecimal.valueOf(request.getQuantity()));
+            BigDecimal cost = ask.price().multiply(BigDecimal.valueOf(quantity));
+            recordFill(buyer, ask, quantity, ask.price());
+            marketStatsService.onFilled(reserved, quantity);
+            proceeds.merge(LedgerAccount.user(ask.sellerId()), cost, BigDecimal::add);
+            soldBySeller.computeIfAbsent(ask.sellerId(), id -> new ArrayList<>())
+                    .add(String.format("%d adet %s", quantity, ask.itemName()));
+            itemNames.add(ask.itemName());
+            totalCost = totalCost.add(cost);
+            result.setBought(true);
+        }
 
-                if (buyer.getBalance().compareTo(totalCost) < 0) {
-                    throw new InsufficientBalanceException(
-                            "Yetersiz bakiye! Bu işlem için " + totalCost + " TL gerekiyor.");
-                }
+        ledgerService.transfer(LedgerAccount.user(buyer.getId()), proceeds, LedgerReason.MARKET_TRADE, null);
+        marketCacheService.evictItems(itemNames);
+        soldBySeller.forEach((sellerId, sold) -> outboxService.notifyUser(userRepository.getReferenceById(sellerId),
+                String.format("%s kullanıcısı %s satın aldı. Kazanç: %s", buyer.getUsername(), String.join(", ", sold),
+                        proceeds.get(LedgerAccount.user(sellerId)))));
 
-                // Process Transaction
-                UserEntity seller = marketItem.getSeller();
+        return BatchBuyResponseDto.builder().totalCost(totalCost).items(results).build();
+    }
 
-                // Transfer Money
-                buyer.setBalance(buyer.getBalance().subtract(totalCost));
-                seller.setBalance(seller.getBalance().add(totalCost));
+    private OrderBook.Ask findBuyableAsk(UserEntity buyer, UUID listingId, Integer quantity) {
+        if (quantity == null || quantity <= 0) {
+            throw new BusinessRuleException("Geçersiz miktar");
+        }
 
-                userRepository.save(buyer);
-                userRepository.save(seller);
+        OrderBook.Ask ask = orderBookService.getAsk(listingId);
 
-                int quantity = request.getQuantity();
+        if (ask.sellerId().equals(buyer.getId())) {
+            throw new BusinessRuleException("Kendi ürününüzü satın alamazsınız");
+        }
 
-                // Update Market Item (Skip if seller is Vestoria)
-                if (!"vestoria".equals(seller.getUsername())) {
-                    marketItem.setQuantity(marketItem.getQuantity() - quantity);
-                    if (marketItem.getQuantity() <= 0) {
-                        marketItem.setIsActive(false);
-                    }
-                    marketRepository.save(marketItem);
-                }
+        if (ask.quantity() < quantity) {
+            // This node's copy may trail fills and top-ups made on other nodes; check against the database once
+            orderBookService.markStale(ask.itemName());
+            ask = orderBookService.getAsk(listingId);
+            if (ask.quantity() < quantity) {
+                throw new BusinessRuleException("Pazarda yeterli miktarda ürün yok");
+            }
+        }
+        return ask;
+    }
 
-                // Publish WebSocket Event
-                messagingTemplate.convertAndSend("/topic/market",
-                        io.vestoria.dto.response.MarketUpdateDto.builder().type("BUY").id(marketItem.getId())
-                                .itemName(marketItem.getItem().getName()).quantity(quantity) // Amount bought
-                                .price(marketItem.getPrice()).sellerName(seller.getUsername()).build());
-
-                // Add item to buyer's centralized inventory (building = null)
-                // Check if buyer already has this item in centralized inventory
-                Optional<ItemEntity> existingItemOpt = itemRepository.findByOwnerAndBuildingIsNullAndName(
-                        buyer, marketItem.getItem().getName());
-
-                if (existingItemOpt.isPresent()) {
-                    ItemEntity existingItem = existingItemOpt.get();
-
-                    // Calculate weighted average quality
-                    BigDecimal oldQuantity = BigDecimal.valueOf(existingItem.getQuantity());
-                    BigDecimal newQuantity = BigDecimal.valueOf(quantity);
-                    BigDecimal totalQuantity = oldQuantity.add(newQuantity);
-
-                    BigDecimal oldTotalQuality = existingItem.getQualityScore().multiply(oldQuantity);
-                    BigDecimal newTotalQuality = marketItem.getItem().getQualityScore().multiply(newQuantity);
-
-                    BigDecimal newAvgQuality = oldTotalQuality.add(newTotalQuality).divide(totalQuantity, 2,
-                            java.math.RoundingMode.HALF_UP);
-
-                    existingItem.setQuantity(existingItem.getQuantity() + quantity);
-                    existingItem.setQualityScore(newAvgQuality);
-                    itemRepository.save(existingItem);
-                } else {
-                    // Create new item in centralized inventory
-                    ItemEntity newItem = ItemEntity.builder().name(marketItem.getItem().getName())
-                            .unit(marketItem.getItem().getUnit()).price(null) // Price is null until user sets it
-                            .cost(marketItem.getPrice()) // Cost is what they paid
-                            .quantity(quantity).qualityScore(marketItem.getItem().getQualityScore())
-                            .tier(marketItem.getItem().getTier()).building(null) // Centralized inventory - no building
-                            .owner(buyer) // Set owner
-                            .build();
-                    itemRepository.save(newItem);
-                }
+    /**
+     * Fills against the listing and returns it as it was right before this
+     * fill, which may differ from {@code ask} if other buyers got there first.
+     */
+    private OrderBook.Ask fillAsk(OrderBook.Ask ask, int quantity) {
+        // Reserve against the in-memory book; fills on the same item are serialized
+        // there instead of racing on the listing's version.
+        OrderBook.Ask reserved = orderBookService.reserve(ask.id(), quantity);
+
+        // Write the fill through to market_items (Skip if seller is Vestoria)
+        if (!ask.unlimited() && marketRepository.fillIfAvailable(ask.id(), quantity, LocalDateTime.now()) == 0) {
+            // Book was out of date (e.g. listing changed on another node)
+            orderBookService.markStale(ask.itemName());
+            throw new BusinessRuleException("Pazarda yeterli miktarda ürün yok");
+        }
+        return reserved;
+    }
 
-                // Record Transaction
-                TransactionEntity transaction = TransactionEntity.builder().type(TransactionType.MARKET_BUY)
-                        .buyer(buyer).seller(seller) // Added seller to transaction
-                        .marketItem(marketItem).price(totalCost) // Changed to totalCost
-                        .amount(quantity).itemName(marketItem.getItem().getName()).build();
-                transactionRepository.save(transaction);
-
-                // Create Notification for Seller
-                String sourceInfo = "";
-                if (marketItem.getItem().getBuilding() != null) {
-                    sourceInfo = String.format(" (%s işletmesinden)", marketItem.getItem().getBuilding().getName());
-                }
+    @Transactional
+    public BidOrderEntity placeBid(String username, PlaceBidRequestDto request) {
+        UserEntity buyer = userRepository.findByUsername(username)
+                .orElseThrow(() -> new ResourceNotFoundException("Kullanıcı bulunamadı: " + username));
 
-                String notificationMessage = String.format("%s kullanıcısı%s %d adet %s satın aldı. Kazanç: %s",
-                        buyer.getUsername(), sourceInfo, quantity, marketItem.getItem().getName(), totalCost);
-                notificationService.createNotification(seller, notificationMessage);
+        if (request.getItemName() == null || request.getItemName().isBlank()) {
+            throw new BusinessRuleException("Ürün adı zorunludur");
+        }
+        if (request.getQuantity() == null || request.getQuantity() <= 0) {
+            throw new BusinessRuleException("Geçersiz miktar");
+        }
+        if (request.getMaxPrice() == null || request.getMaxPrice().compareTo(BigDecimal.ZERO) <= 0) {
+            throw new BusinessRuleException("Geçersiz fiyat");
+        }
 
-                break; // Success, exit loop
+        String itemName = request.getItemName().trim();
+        int quantity = request.getQuantity();
+        BigDecimal escrow = request.getMaxPrice().multiply(BigDecimal.valueOf(quantity));
+
+        BidOrderEntity bid = bidOrderRepository.save(BidOrderEntity.builder().buyer(buyer).itemName(itemName)
+                .maxPrice(request.getMaxPrice()).quantity(quantity).remainingQuantity(quantity)
+                .minQuality(request.getMinQuality()).isActive(true).build());
+
+        // The full amount at the limit price is held while the bid is open
+        LedgerAccount escrowAccount = LedgerAccount.system(SystemAccount.BID_ESCROW);
+        ledgerService.transfer(LedgerAccount.user(buyer.getId()), escrowAccount, escrow, LedgerReason.BID_ESCROW,
+                bid.getId());
+
+        // Match against resting asks; each fill executes at the ask's price and the
+        // difference to the limit price goes back to the buyer.
+        int filled = 0;
+        BigDecimal refund = BigDecimal.ZERO;
+        for (OrderBook.Fill<OrderBook.Ask> fill : orderBookService.takeAsks(itemName, request.getMaxPrice(),
+                request.getMinQuality(), buyer.getId(), quantity)) {
+            OrderBook.Ask ask = fill.order();
+            if (!ask.unlimited()
+                    && marketRepository.fillIfAvailable(ask.id(), fill.quantity(), LocalDateTime.now()) == 0) {
+                orderBookService.markStale(itemName);
+                continue;
+            }
+            BigDecimal cost = ask.price().multiply(BigDecimal.valueOf(fill.quantity()));
+            ledgerService.transfer(escrowAccount, LedgerAccount.user(ask.sellerId()), cost,
+                    LedgerReason.MARKET_TRADE, ask.id());
+            settleFill(buyer, ask, fill.quantity(), ask.price());
+            marketStatsService.onFilled(ask, fill.quantity());
+            refund = refund.add(request.getMaxPrice().subtract(ask.price()).multiply(
+                    BigDecimal.valueOf(fill.quantity())));
+            filled += fill.quantity();
+        }
 
-            } catch (ObjectOptimisticLockingFailureException e) {
-                attempt++;
-                if (attempt == maxRetries) {
-                    throw new BusinessRuleException(
-                            "Yoğunluk nedeniyle işlem gerçekleştirilemedi. Lütfen tekrar deneyiniz.");
-                }
-                // Retry loop continues
+        ledgerService.transfer(escrowAccount, LedgerAccount.user(buyer.getId()), refund, LedgerReason.BID_REFUND,
+                bid.getId());
+
+        if (filled > 0) {
+            outboxService.notifyUser(buyer, String.format("Alış emriniz gerçekleşti: %d adet %s", filled, itemName));
+        }
+
+        int open = quantity - filled;
+        bid.setRemainingQuantity(open);
+        bid.setIsActive(open > 0);
+        BidOrderEntity savedBid = bidOrderRepository.save(bid);
+        orderBookService.onBidPlaced(savedBid, open);
+        if (open > 0) {
+            outboxService.publishMarketUpdate(MarketUpdateDto.builder().type("BID").id(savedBid.getId())
+                    .itemName(itemName).quantity(open).price(savedBid.getMaxPrice()).build());
+        }
+        return savedBid;
+    }
+
+    @Transactional
+    public void cancelBid(String username, UUID bidId) {
+        BidOrderEntity bid = bidOrderRepository.findByIdForUpdate(bidId)
+                .orElseThrow(() -> new ResourceNotFoundException("Alış emri bulunamadı"));
+
+        if (!bid.getBuyer().getUsername().equals(username)) {
+            throw new UnauthorizedAccessException("Bu alış emrini iptal etme yetkiniz yok");
+        }
+
+        if (!Boolean.TRUE.equals(bid.getIsActive())) {
+            throw new BusinessRuleException("Bu alış emri zaten aktif değil");
+        }
+
+        orderBookService.withdrawBid(bid.getItemName(), bid.getId());
+
+        // Release the escrow still held for the unfilled quantity
+        UserEntity buyer = bid.getBuyer();
+        BigDecimal refund = bid.getMaxPrice().multiply(BigDecimal.valueOf(bid.getRemainingQuantity()));
+        ledgerService.transfer(LedgerAccount.system(SystemAccount.BID_ESCROW), LedgerAccount.user(buyer.getId()),
+                refund, LedgerReason.BID_REFUND, bid.getId());
+
+        bid.setIsActive(false);
+        bidOrderRepository.save(bid);
+        outboxService.publishMarketUpdate(MarketUpdateDto.builder().type("BID_CANCEL").id(bid.getId())
+                .itemName(bid.getItemName()).quantity(bid.getRemainingQuantity()).price(bid.getMaxPrice()).build());
+    }
+
+    @Transactional(readOnly = true)
+    public List<BidOrderEntity> getMyBids(String username) {
+        return bidOrderRepository.findByBuyer_UsernameAndIsActiveTrueOrderByCreatedTimeDesc(username);
+    }
+
+    /**
+     * Matches a freshly listed quantity against standing bids. Fills execute at
+     * the bid's price, which was escrowed when the bid was placed. Returns the
+     * quantity that was sold.
+     */
+    private int matchIncomingAsk(UserEntity seller, ItemEntity item, BigDecimal price, int quantity,
+            List<PendingBidFill> confirmed) {
+        int filled = 0;
+        for (OrderBook.Fill<OrderBook.Bid> fill : orderBookService.takeBids(item.getName(), price,
+                item.getQualityScore(), seller.getId(), quantity)) {
+            if (bidOrderRepository.fillIfAvailable(fill.order().id(), fill.quantity(), LocalDateTime.now()) == 0) {
+                orderBookService.markStale(item.getName());
+                continue;
             }
+            confirmed.add(new PendingBidFill(fill.order(), fill.quantity()));
+            filled += fill.quantity();
+        }
+        return filled;
+    }
+
+    /**
+     * Books the non-listing side of a fill: moves the goods into the buyer's
+     * centralized inventory, records the transaction and notifies. Payment and
+     * the listing row are handled by the caller.
+     */
+    @SuppressWarnings("null")
+    private void settleFill(UserEntity buyer, OrderBook.Ask ask, int quantity, BigDecimal unitPrice) {
+        BigDecimal totalCost = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        marketCacheService.evictItem(ask.itemName());
+        recordFill(buyer, ask, quantity, unitPrice);
+
+        // Create Notification for Seller
+        String sourceInfo = "";
+        if (ask.sourceBuildingName() != null) {
+            sourceInfo = String.format(" (%s işletmesinden)", ask.sourceBuildingName());
         }
+
+        String notificationMessage = String.format("%s kullanıcısı%s %d adet %s satın aldı. Kazanç: %s",
+                buyer.getUsername(), sourceInfo, quantity, ask.itemName(), totalCost);
+        outboxService.notifyUser(userRepository.getReferenceById(ask.sellerId()), notificationMessage);
+    }
+
+    /**
+     * Market update, buyer's goods and transaction record of a fill; the parts
+     * a batch purchase books per line.
+     */
+    @SuppressWarnings("null")
+    private void recordFill(UserEntity buyer, OrderBook.Ask ask, int quantity, BigDecimal unitPrice) {
+        BigDecimal totalCost = unitPrice.multiply(BigDecimal.valueOf(quantity));
+        UserEntity seller = userRepository.getReferenceById(ask.sellerId());
+        MarketEntity marketItem = marketRepository.getReferenceById(ask.id());
+
+        // Stage WebSocket event, sent by the outbox relay after commit
+        outboxService.publishMarketUpdate(MarketUpdateDto.builder().type("BUY").id(ask.id()).itemName(ask.itemName())
+                .quantity(quantity) // Amount bought
+                .price(unitPrice).totalPrice(totalCost).sellerName(ask.sellerUsername()).build());
+
+        // Add to the buyer's centralized stack of this quality; cost is what they paid
+        itemRepository.upsertStack(buyer.getId(), null, ask.itemName(), ask.unit() == null ? null : ask.unit().name(),
+                ask.tier() == null ? null : ask.tier().name(), ask.qualityScore(), null, unitPrice, quantity,
+                LocalDateTime.now());
+
+        // Record Transaction
+        TransactionEntity transaction = TransactionEntity.builder().type(TransactionType.MARKET_BUY).buyer(buyer)
+                .seller(seller).marketItem(marketItem).price(totalCost).amount(quantity).itemName(ask.itemName())
+                .build();
+        transactionRepository.save(transaction);
+        eventPublisher.publishEvent(new TradeExecutedEvent(TransactionType.MARKET_BUY, ask.itemName(), quantity,
+                unitPrice, LocalDateTime.now()));
     }
 
     @Transactional
-    @CacheEvict(value = { "globalDemand", "globalSupply", "activeListings" }, allEntries = true)
     public void cancelListing(String username, UUID listingId) {
         UserEntity user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new ResourceNotFoundException("Kullanıcı bulunamadı"));
 
-        MarketEntity listing = marketRepository.findById(listingId)
+        // Lock the row so in-flight fills either land before the cancel or see the
+        // listing as inactive
+        MarketEntity listing = marketRepository.findByIdForUpdate(listingId)
                 .orElseThrow(() -> new ResourceNotFoundException("İlan bulunamadı"));
 
         if (!listing.getSeller().getId().equals(user.getId())) {
@@ -276,50 +540,161 @@ public class MarketService {
             throw new BusinessRuleException("Bu ilan zaten aktif değil");
         }
 
+        orderBookService.withdraw(listing.getId());
+        marketCacheService.evictItem(listing.getItem().getName());
+
         // Restore quantity to item
         ItemEntity item = listing.getItem();
-        item.setQuantity(item.getQuantity() + listing.getQuantity());
-        itemRepository.save(item);
+        itemRepository.increment(item.getId(), listing.getQuantity(), LocalDateTime.now());
 
         // Deactivate listing
         listing.setIsActive(false);
         marketRepository.save(listing);
+        marketStatsService.onCancelled(item.getName(), listing.getQuantity());
 
-        // Publish WebSocket Event
-        messagingTemplate.convertAndSend("/topic/market", MarketUpdateDto.builder().type("CANCEL").id(listing.getId())
-                // Other fields can be null for CANCEL
-                .build());
+        // Stage WebSocket event, sent by the outbox relay after commit
+        outboxService.publishMarketUpdate(MarketUpdateDto.builder().type("CANCEL").id(listing.getId())
+                // Item name routes the event; other fields can be null for CANCEL
+                .itemName(item.getName()).build());
     }
 
     // @Cacheable("activeListings") - Disabled due to Redis serialization issues
     // with PageImpl
     public Page<MarketResponseDto> getActiveListings(String search, int page, int size) {
         // Note: We are not caching search results for now as they are dynamic
-        String searchTerm = search != null ? "%" + search.toLowerCase() + "%" : null;
-        return marketRepository.findAllActiveWithDetails(searchTerm, PageRequest.of(page, size))
+        if (search == null || search.isBlank()) {
+            return marketRepository.findAllActiveWithDetails(PageRequest.of(page, size))
+                    .map(marketConverter::toResponseDto);
+        }
+        Set<String> itemNames = itemSearchService.resolve(search);
+        if (itemNames.isEmpty()) {
+            return Page.empty(PageRequest.of(page, size));
+        }
+        return marketRepository.findAllActiveWithDetailsByItemNames(itemNames, PageRequest.of(page, size))
                 .map(marketConverter::toResponseDto);
     }
 
-    @Cacheable("globalDemand")
+    /**
+     * Keyset-paginated variant of {@link #getActiveListings}: no OFFSET and no
+     * COUNT, so deep pages cost the same as the first one.
+     */
+    @Transactional(readOnly = true)
+    public CursorPageDto<MarketResponseDto> getActiveListings(String search, String cursor, String sort, int size) {
+        Set<String> itemNames = search != null && !search.isBlank() ? itemSearchService.resolve(search) : null;
+        ListingSort listingSort = parseSort(sort);
+        int pageSize = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        // One extra row tells us whether there is a next page
+        PageRequest limit = PageRequest.of(0, pageSize + 1);
+
+        String[] position = decodeCursor(cursor);
+        if (itemNames != null && itemNames.isEmpty()) {
+            return CursorPageDto.<MarketResponseDto>builder().content(Collections.emptyList()).hasNext(false)
+                    .build();
+        }
+
+        List<MarketEntity> rows;
+        try {
+            if (listingSort == ListingSort.NEWEST) {
+                LocalDateTime createdTime = position != null ? LocalDateTime.parse(position[0]) : MAX_CREATED_TIME;
+                UUID id = position != null ? UUID.fromString(position[1]) : MAX_UUID;
+                rows = itemNames == null ? marketRepository.findActiveBeforeCreatedTime(createdTime, id, limit)
+                        : marketRepository.findActiveBeforeCreatedTimeByItemNames(itemNames, createdTime, id, limit);
+            } else {
+                BigDecimal price = position != null ? new BigDecimal(position[0]) : BigDecimal.valueOf(-1);
+                UUID id = position != null ? UUID.fromString(position[1]) : MIN_UUID;
+                rows = itemNames == null ? marketRepository.findActiveAfterPrice(price, id, limit)
+                        : marketRepository.findActiveAfterPriceByItemNames(itemNames, price, id, limit);
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            // Cursor was issued for the other sort order or tampered with
+            throw new BusinessRuleException("Geçersiz sayfa imleci");
+        }
+
+        boolean hasNext = rows.size() > pageSize;
+        List<MarketEntity> page = hasNext ? rows.subList(0, pageSize) : rows;
+        String nextCursor = null;
+        if (hasNext) {
+            MarketEntity last = page.get(page.size() - 1);
+            String key = listingSort == ListingSort.NEWEST ? last.getCreatedTime().toString()
+                    : last.getPrice().toPlainString();
+            nextCursor = encodeCursor(key, last.getId());
+        }
+
+        return CursorPageDto.<MarketResponseDto>builder()
+                .content(page.stream().map(marketConverter::toResponseDto).collect(Collectors.toList()))
+                .nextCursor(nextCursor).hasNext(hasNext).build();
+    }
+
+    private ListingSort parseSort(String sort) {
+        if (sort == null || sort.isBlank()) {
+            return ListingSort.PRICE;
+        }
+        try {
+            return ListingSort.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Geçersiz sıralama: " + sort);
+        }
+    }
+
+    private static String encodeCursor(String key, UUID id) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((key + CURSOR_SEPARATOR + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return null;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = decoded.split(CURSOR_SEPARATOR, 2);
+            if (parts.length != 2) {
+                throw new IllegalArgumentException(decoded);
+            }
+            return parts;
+        } catch (IllegalArgumentException e) {
+            throw new BusinessRuleException("Geçersiz sayfa imleci");
+        }
+    }
+
+    public Set<String> searchItemNames(String search) {
+        return itemSearchService.resolve(search);
+    }
+
     public long calculateGlobalDemand(String itemName) {
         // Sum of amounts in transactions for this item in the last 24 hours
-        LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
-        Integer demand = transactionRepository.sumByItemNameAndCreatedAtAfter(itemName, twentyFourHoursAgo);
-        return demand != null ? demand.longValue() : 0L;
+        return demandCounterService.getVolume24h(itemName);
     }
 
     @Cacheable("globalSupply")
     public long calculateGlobalSupply(String itemName) {
-        LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
-        Integer supply = marketRepository.sumByItemNameAndCreatedAtAfter(itemName, twentyFourHoursAgo);
-        return supply != null ? supply.longValue() : 0L;
+        return marketStatsService.getListedVolume24h(itemName);
+    }
+
+    /**
+     * Demand and supply of every item as {@link #calculateGlobalDemand} and
+     * {@link #calculateGlobalSupply} see them, plus the oracle's prices, read
+     * with one stats query.
+     */
+    public MarketSnapshotDto takeMarketSnapshot() {
+        Map<String, BigDecimal> prices = priceOracleService.getSnapshot().getPrices();
+        Map<String, Long> supply = marketStatsService.getAllListedVolumes24h();
+
+        Map<String, Long> demand = new HashMap<>();
+        Stream.concat(prices.keySet().stream(), supply.keySet().stream())
+                .forEach(itemName -> demand.computeIfAbsent(itemName, demandCounterService::getVolume24h));
+
+        return MarketSnapshotDto.builder().demand(Map.copyOf(demand)).supply(Map.copyOf(supply)).prices(prices)
+                .takenAt(LocalDateTime.now()).build();
     }
 
-    @Cacheable("marketTrends")
     public List<MarketTrendDto> getMarketTrends() {
-        LocalDateTime twentyFourHoursAgo = LocalDateTime.now().minusHours(24);
-        List<TrendingItemDto> topItems = transactionRepository.findTopTrendingItems(twentyFourHoursAgo,
-                PageRequest.of(0, 5));
+        // Top items by 24h volume straight from the demand counters
+        List<TrendingItemDto> topItems = priceOracleService.getSnapshot().getPrices().keySet().stream()
+                .map(itemName -> new TrendingItemDto(itemName, demandCounterService.getVolume24h(itemName)))
+                .filter(item -> item.getTotalAmount() > 0)
+                .sorted(Comparator.comparing(TrendingItemDto::getTotalAmount).reversed()).limit(5)
+                .collect(Collectors.toList());
 
         if (topItems.isEmpty()) {
             return Collections.emptyList();
@@ -327,37 +702,32 @@ public class MarketService {
 
         List<String> itemNames = topItems.stream().map(TrendingItemDto::getItemName).collect(Collectors.toList());
 
-        List<MarketStatsDto> statsList = marketRepository.findMarketStatsByItemNames(itemNames);
-        Map<String, MarketStatsDto> statsMap = statsList.stream()
-                .collect(Collectors.toMap(MarketStatsDto::getItemName, stats -> stats));
+        Map<String, ItemMarketStatsEntity> statsMap = marketStatsService.getStats(itemNames);
 
         return topItems.stream().map(item -> {
             String itemName = item.getItemName();
-            Long demand = item.getTotalAmount();
 
-            MarketStatsDto stats = statsMap.get(itemName);
-            BigDecimal minPrice = (stats != null && stats.getMinPrice() != null)
-                    ? stats.getMinPrice()
-                    : BigDecimal.ZERO;
-            long supply = (stats != null && stats.getActiveCount() != null) ? stats.getActiveCount() : 0L;
+            ItemMarketStatsEntity stats = statsMap.get(itemName);
+            BigDecimal minPrice = (stats != null && stats.getMinAsk() != null) ? stats.getMinAsk() : BigDecimal.ZERO;
 
-            // Calculate Trend
+            // Calculate Trend from the hourly candles of the last 24 hours
+            double change = candleService.getDayChangePercent(itemName).orElse(0.0);
             String trend = "stable";
-            double ratio = (double) demand / (supply + 1);
-            if (ratio > 1.5)
+            if (change > TREND_THRESHOLD_PERCENT)
                 trend = "up";
-            else if (ratio < 0.5)
+            else if (change < -TREND_THRESHOLD_PERCENT)
                 trend = "down";
 
-            // Calculate Change (Mock based on ratio)
-            double change = (ratio - 1) * 5.0;
-            if (change < -10)
-                change = -10;
-            if (change > 10)
-                change = 10;
-
             return MarketTrendDto.builder().name(itemName).price(minPrice).trend(trend).change(Math.abs(change))
                     .build();
         }).collect(Collectors.toList());
     }
+
+    public List<PriceCandleDto> getCandles(String itemName, String resolution, LocalDateTime from,
+            LocalDateTime to) {
+        return candleService.getCandles(itemName, resolution, from, to);
+    }
+
+    private record PendingBidFill(OrderBook.Bid bid, int quantity) {
+    }
 }
@@ -0,0 +1,200 @@
+package io.vestoria.service;
+
+import io.vestoria.dto.response.ListingVolumeDto;
+import io.vestoria.dto.response.MarketStatsDto;
+import io.vestoria.entity.ItemMarketStatsDeltaEntity;
+import io.vestoria.entity.ItemMarketStatsEntity;
+import io.vestoria.exception.ResourceNotFoundException;
+import io.vestoria.repository.ItemMarketStatsDeltaRepository;
+import io.vestoria.repository.ItemMarketStatsRepository;
+import io.vestoria.repository.MarketRepository;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Maintains one {@link ItemMarketStatsEntity} row per item. Trades only insert
+ * deltas in their own transaction, so trades on one item never wait on its
+ * stats row; a scheduled fold applies them and recomputes the cheapest ask.
+ * Readers do a single-row lookup and may trail trades by one fold interval.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MarketStatsService {
+
+    private final ItemMarketStatsRepository statsRepository;
+    private final MarketRepository marketRepository;
+    private final SystemUserRegistry systemUserRegistry;
+    private final ItemMarketStatsDeltaRepository deltaRepository;
+
+    @Value("${vestoria.market-stats.fold-batch-size:5000}")
+    private int foldBatchSize;
+
+    /**
+     * Seeds rows for items that have listings but no stats row yet, e.g. on
+     * first start after the table was introduced. Like fills, the market
+     * makers' unlimited listings are left out.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional
+    public void seedMissingStats() {
+        Map<String, ItemMarketStatsEntity> existing = statsRepository.findAll().stream()
+                .collect(Collectors.toMap(ItemMarketStatsEntity::getItemName, Function.identity()));
+
+        Map<String, ItemMarketStatsEntity> created = new HashMap<>();
+        for (MarketStatsDto stats : marketRepository.findActiveMarketStats(systemUserRegistry.getMarketMakerIds())) {
+            if (!existing.containsKey(stats.getItemName())) {
+                ItemMarketStatsEntity row = newRow(stats.getItemName());
+                row.setActiveQuantity(stats.getActiveQuantity());
+                row.setActiveListingCount(stats.getActiveCount().intValue());
+                row.setMinAsk(stats.getMinPrice());
+                created.put(stats.getItemName(), row);
+            }
+        }
+        LocalDateTime since = LocalDateTime.now().minusHours(ItemMarketStatsEntity.WINDOW_HOURS);
+        for (ListingVolumeDto volume : marketRepository.findListingVolumesSince(since,
+                systemUserRegistry.getMarketMakerIds())) {
+            if (!existing.containsKey(volume.getItemName())) {
+                created.computeIfAbsent(volume.getItemName(), this::newRow).addListedVolume(volume.getQuantity(),
+                        epochHour(volume.getCreatedTime()));
+            }
+        }
+
+        if (!created.isEmpty()) {
+            statsRepository.saveAll(created.values());
+            // Seeded rows already count the listings behind any pending deltas
+            deltaRepository.deleteByItemNames(created.keySet());
+            log.info("Seeded market stats for {} items", created.size());
+        }
+    }
+
+    public void onListed(String itemName, int listedQuantity, int openQuantity, boolean newListing) {
+        record(itemName, openQuantity, openQuantity > 0 && newListing ? 1 : 0, listedQuantity);
+    }
+
+    /**
+     * Records a fill against a resting listing. Unlimited (system) listings
+     * never change the stats.
+     */
+    public void onFilled(OrderBook.Ask ask, int quantity) {
+        if (ask.unlimited()) {
+            return;
+        }
+        record(ask.itemName(), -quantity, quantity >= ask.quantity() ? -1 : 0, 0);
+    }
+
+    public void onCancelled(String itemName, int quantity) {
+        record(itemName, -quantity, -1, 0);
+    }
+
+    /**
+     * Applies pending deltas to the stats rows. Rows are locked in item name
+     * order, so folds running on several nodes cannot deadlock, and the
+     * cheapest ask of every touched item is read back from its listings.
+     */
+    @Scheduled(fixedDelayString = "${vestoria.market-stats.fold-ms:1000}")
+    @Transactional
+    public void foldDeltas() {
+        List<ItemMarketStatsDeltaEntity> deltas = deltaRepository.claimBatch(foldBatchSize);
+        if (deltas.isEmpty()) {
+            return;
+        }
+        Map<String, List<ItemMarketStatsDeltaEntity>> byItem = deltas.stream().collect(Collectors
+                .groupingBy(ItemMarketStatsDeltaEntity::getItemName, TreeMap::new, Collectors.toList()));
+        byItem.forEach((itemName, itemDeltas) -> {
+            ItemMarketStatsEntity stats = lock(itemName);
+            long activeQuantity = stats.getActiveQuantity();
+            int activeListingCount = stats.getActiveListingCount();
+            itemDeltas.sort(Comparator.comparingLong(ItemMarketStatsDeltaEntity::getListedHour));
+            for (ItemMarketStatsDeltaEntity delta : itemDeltas) {
+                activeQuantity += delta.getActiveQuantity();
+                activeListingCount += delta.getActiveListingCount();
+                if (delta.getListedQuantity() > 0) {
+                    stats.addListedVolume(delta.getListedQuantity(), delta.getListedHour());
+                }
+            }
+            stats.setActiveQuantity(Math.max(0L, activeQuantity));
+            stats.setActiveListingCount(Math.max(0, activeListingCount));
+            stats.setMinAsk(marketRepository.findMinPriceByItemName(itemName, systemUserRegistry.getMarketMakerIds()));
+            statsRepository.save(stats);
+        });
+        deltaRepository.deleteAllInBatch(deltas);
+        log.debug("Folded {} market stats deltas into {} items", deltas.size(), byItem.size());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<ItemMarketStatsEntity> getStats(String itemName) {
+        return statsRepository.findByItemName(itemName);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, ItemMarketStatsEntity> getStats(Collection<String> itemNames) {
+        return statsRepository.findByItemNameIn(itemNames).stream()
+                .collect(Collectors.toMap(ItemMarketStatsEntity::getItemName, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, ItemMarketStatsEntity> getAllStats() {
+        return statsRepository.findAll().stream()
+                .collect(Collectors.toMap(ItemMarketStatsEntity::getItemName, Function.identity()));
+    }
+
+    @Transactional(readOnly = true)
+    public long getActiveQuantity(String itemName) {
+        return getStats(itemName).map(ItemMarketStatsEntity::getActiveQuantity).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public long getListedVolume24h(String itemName) {
+        long now = epochHour(LocalDateTime.now());
+        return getStats(itemName).map(stats -> stats.listedVolume(now)).orElse(0L);
+    }
+
+    @Transactional(readOnly = true)
+    public Map<String, Long> getAllListedVolumes24h() {
+        long now = epochHour(LocalDateTime.now());
+        return statsRepository.findAll().stream()
+                .collect(Collectors.toMap(ItemMarketStatsEntity::getItemName, stats -> stats.listedVolume(now)));
+    }
+
+    private void record(String itemName, long activeQuantity, int activeListingCount, int listedQuantity) {
+        deltaRepository.save(ItemMarketStatsDeltaEntity.builder().itemName(itemName).activeQuantity(activeQuantity)
+                .activeListingCount(activeListingCount).listedQuantity(listedQuantity)
+                .listedHour(epochHour(LocalDateTime.now())).build());
+    }
+
+    private ItemMarketStatsEntity lock(String itemName) {
+        Optional<ItemMarketStatsEntity> stats = statsRepository.findByItemNameForUpdate(itemName);
+        if (stats.isPresent()) {
+            return stats.get();
+        }
+        statsRepository.insertIfAbsent(itemName);
+        return statsRepository.findByItemNameForUpdate(itemName)
+                .orElseThrow(() -> new ResourceNotFoundException("Pazar istatistiği bulunamadı: " + itemName));
+    }
+
+    private ItemMarketStatsEntity newRow(String itemName) {
+        return ItemMarketStatsEntity.builder().itemName(itemName).activeQuantity(0L).activeListingCount(0).build();
+    }
+
+    private static long epochHour(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond() / 3600;
+    }
+}
@@ -0,0 +1,223 @@
+package io.vestoria.service;
+
+import io.vestoria.dto.response.MarketResyncDto;
+import io.vestoria.dto.response.MarketSummaryDto;
+import io.vestoria.dto.response.MarketUpdateDto;
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Buffers market updates and sends them as one array frame per tick: all
+ * updates to {@code /topic/market}, each item's own updates to
+ * {@code /topic/market/{itemName}}, new listings of every item to
+ * {@code /topic/market-listings} and a per-item digest to
+ * {@code /topic/market-summary}. Sellers get their fills on their own
+ * {@code /user/queue/sales}. Destinations without subscribers are skipped.
+ * Updates are numbered and buffered once their transaction commits, and
+ * consecutive updates to the same listing are merged before sending; a merged
+ * update carries the highest sequence number it covers. Each sent batch is
+ * also handed to the {@link MarketFanout} for the other nodes.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class MarketUpdatePublisher {
+
+    public static final String MARKET_TOPIC = "/topic/market";
+    public static final String SUMMARY_TOPIC = "/topic/market-summary";
+    public static final String LISTINGS_TOPIC = "/topic/market-listings";
+    public static final String SALES_QUEUE = "/queue/sales";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MarketSubscriptionTracker subscriptionTracker;
+    private final OrderBookService orderBookService;
+    private final MarketEventLog eventLog;
+    private final MarketFanout fanout;
+
+    // Pending updates per listing, in the order listings were first touched
+    private Map<UUID, List<MarketUpdateDto>> pending = new LinkedHashMap<>();
+
+    public void publish(MarketUpdateDto update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            enqueue(update);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                enqueue(update);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${vestoria.market-updates.flush-ms:250}")
+    public void flush() {
+        Map<UUID, List<MarketUpdateDto>> batch;
+        synchronized (this) {
+            if (pending.isEmpty()) {
+                return;
+            }
+            batch = pending;
+            pending = new LinkedHashMap<>();
+        }
+
+        List<MarketUpdateDto> frame = new ArrayList<>();
+        batch.values().forEach(frame::addAll);
+        route(frame);
+        fanout.broadcast(frame);
+    }
+
+    @PostConstruct
+    public void joinFanout() {
+        fanout.onRemote(this::acceptRemote);
+    }
+
+    /**
+     * Batches from other nodes are numbered into this node's log, so the
+     * resync endpoint covers them too, and routed as they arrive. The books of
+     * the items they touch are reloaded from the database before their next
+     * use, as this node's copy no longer matches.
+     */
+    private void acceptRemote(List<MarketUpdateDto> updates) {
+        updates.stream().map(MarketUpdateDto::getItemName).distinct().forEach(orderBookService::markStale);
+        route(updates.stream().map(eventLog::append).toList());
+    }
+
+    private void route(List<MarketUpdateDto> frame) {
+        if (subscriptionTracker.hasSubscribers(MARKET_TOPIC)) {
+            send(MARKET_TOPIC, frame);
+        }
+
+        Map<String, List<MarketUpdateDto>> byItem = frame.stream()
+                .collect(Collectors.groupingBy(MarketUpdateDto::getItemName, LinkedHashMap::new, Collectors.toList()));
+        byItem.forEach((itemName, updates) -> {
+            String destination = itemTopic(itemName);
+            if (subscriptionTracker.hasSubscribers(destination)) {
+                send(destination, updates);
+            }
+        });
+
+        List<MarketUpdateDto> listed = frame.stream().filter(u -> "LIST".equals(u.getType())).toList();
+        if (!listed.isEmpty() && subscriptionTracker.hasSubscribers(LISTINGS_TOPIC)) {
+            send(LISTINGS_TOPIC, listed);
+        }
+
+        if (subscriptionTracker.hasSubscribers(SUMMARY_TOPIC)) {
+            send(SUMMARY_TOPIC, byItem.entrySet().stream().map(e -> summarize(e.getKey(), e.getValue())).toList());
+        }
+
+        // Every node routes every batch, so the seller's own node delivers; the others find no session
+        if (subscriptionTracker.hasSubscribers("/user" + SALES_QUEUE)) {
+            frame.stream().filter(u -> "BUY".equals(u.getType()) && u.getSellerName() != null)
+                    .collect(Collectors.groupingBy(MarketUpdateDto::getSellerName, LinkedHashMap::new,
+                            Collectors.toList()))
+                    .forEach(this::sendSales);
+        }
+    }
+
+    public static String itemTopic(String itemName) {
+        return MARKET_TOPIC + "/" + itemName;
+    }
+
+    private MarketSummaryDto summarize(String itemName, List<MarketUpdateDto> updates) {
+        int volume = 0;
+        BigDecimal lastPrice = null;
+        for (MarketUpdateDto update : updates) {
+            if ("BUY".equals(update.getType())) {
+                volume += update.getQuantity();
+                lastPrice = update.getPrice();
+            }
+        }
+        // As this node last saw it; a stale book is reloaded by the next trade or read, not on the tick
+        OrderBook book = orderBookService.book(itemName);
+        return MarketSummaryDto.builder().itemName(itemName).volume(volume).lastPrice(lastPrice)
+                .bestAsk(book.bestAsk().map(OrderBook.Ask::price).orElse(null))
+                .bestBid(book.bestBid().map(OrderBook.Bid::maxPrice).orElse(null)).build();
+    }
+
+    private void send(String destination, Object payload) {
+        try {
+            messagingTemplate.convertAndSend(destination, payload);
+        } catch (Exception e) {
+            log.warn("Failed to send market updates to {}: {}", destination, e.getMessage());
+        }
+    }
+
+    private void sendSales(String sellerName, List<MarketUpdateDto> sales) {
+        try {
+            messagingTemplate.convertAndSendToUser(sellerName, SALES_QUEUE, sales);
+        } catch (Exception e) {
+            log.warn("Failed to send sales to {}: {}", sellerName, e.getMessage());
+        }
+    }
+
+    /**
+     * Catches a reconnecting client up from {@code since} in log {@code epoch}.
+     * Without {@code since} only the current position is returned, as a
+     * starting point; when the log is another one or no longer reaches back to
+     * {@code since}, the client is told to reload instead.
+     */
+    public MarketResyncDto resync(Long since, String epoch, String itemName) {
+        if (since != null && eventLog.epoch().equals(epoch)) {
+            Optional<MarketEventLog.Slice> slice = eventLog.since(since, itemName);
+            if (slice.isPresent()) {
+                return MarketResyncDto.builder().epoch(epoch).seq(slice.get().seq()).reload(false)
+                        .updates(slice.get().updates()).build();
+            }
+        }
+        // Read before the client reloads, so updates racing the reload are replayed rather than lost
+        return MarketResyncDto.builder().epoch(eventLog.epoch()).seq(eventLog.lastSeq()).reload(since != null)
+                .updates(List.of()).build();
+    }
+
+    private synchronized void enqueue(MarketUpdateDto sourceUpdate) {
+        MarketUpdateDto update = eventLog.append(copy(sourceUpdate));
+        List<MarketUpdateDto> updates = pending.computeIfAbsent(update.getId(), id -> new ArrayList<>());
+        MarketUpdateDto last = updates.isEmpty() ? null : updates.get(updates.size() - 1);
+
+        switch (update.getType()) {
+            case "BUY" -> {
+                if (last != null && "BUY".equals(last.getType())) {
+                    // Sum fills so clients subtract once and sellers still see the total proceeds
+                    last.setQuantity(last.getQuantity() + update.getQuantity());
+                    last.setTotalPrice(last.getTotalPrice().add(update.getTotalPrice()));
+                    last.setPrice(update.getPrice());
+                    last.setSeq(update.getSeq());
+                } else {
+                    updates.add(update);
+                }
+            }
+            case "CANCEL" -> {
+                // A listing that is gone needs no LIST; fills stay so sellers still get notified
+                updates.removeIf(u -> "LIST".equals(u.getType()));
+                updates.add(update);
+            }
+            default -> {
+                // LIST and BID carry the order's full open quantity, so they supersede an earlier one
+                if (last != null && update.getType().equals(last.getType())) {
+                    updates.set(updates.size() - 1, update);
+                } else {
+                    updates.add(update);
+                }
+            }
+        }
+    }
+
+    private MarketUpdateDto copy(MarketUpdateDto update) {
+        return update.toBuilder().build();
+    }
+}
@@ -4,6 +4,7 @@ import io.vestoria.converter.NotificationConverter;
 import io.vestoria.dto.response.NotificationDto;
 import io.vestoria.entity.NotificationEntity;
 import io.vestoria.entity.UserEntity;
+import io.vestoria.event.UserNotificationEvent;
 import io.vestoria.exception.ResourceNotFoundException;
 import io.vestoria.exception.UnauthorizedAccessException;
 import io.vestoria.repository.NotificationRepository;
@@ -36,6 +37,19 @@ public class NotificationService {
         notificationRepository.save(notification);
     }
 
+    /**
+     * Writes a batch of notifications relayed from the outbox, evicting the
+     * notification caches once for the whole batch.
+     */
+    @Transactional
+    @CacheEvict(value = {"getUserNotifications", "getUnreadCount"}, allEntries = true)
+    public void createNotifications(List<UserNotificationEvent> events) {
+        notificationRepository.saveAll(events.stream()
+                .map(event -> NotificationEntity.builder().user(userRepository.getReferenceById(event.userId()))
+                        .message(event.message()).isRead(false).build())
+                .toList());
+    }
+
     @Transactional(readOnly = true)
     @Cacheable("getUserNotifications")
     public List<NotificationDto> getUserNotifications(String username) {
@@ -0,0 +1,279 @@
+package io.vestoria.service;
+
+import io.vestoria.enums.ItemTier;
+import io.vestoria.enums.ItemUnit;
+import io.vestoria.exception.BusinessRuleException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Optional;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * In-memory market for a single item name. Asks (listings) and bids (standing
+ * buy orders) are kept in price-time priority; every mutation happens under
+ * the book lock so fills on the same item are serialized.
+ */
+public class OrderBook {
+
+    private static final Comparator<Ask> PRICE_TIME = Comparator.comparing(Ask::price)
+            .thenComparing(Ask::listedAt, Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(Ask::id);
+
+    private static final Comparator<Bid> BID_PRICE_TIME = Comparator.comparing(Bid::maxPrice).reversed()
+            .thenComparing(Bid::placedAt, Comparator.nullsFirst(Comparator.naturalOrder())).thenComparing(Bid::id);
+
+    private final String itemName;
+    private final ReentrantLock lock = new ReentrantLock(true);
+    private final NavigableSet<Ask> asks = new TreeSet<>(PRICE_TIME);
+    private final Map<UUID, Ask> asksById = new HashMap<>();
+    private final NavigableSet<Bid> bids = new TreeSet<>(BID_PRICE_TIME);
+    private final Map<UUID, Bid> bidsById = new HashMap<>();
+
+    public OrderBook(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public <T> T withLock(Supplier<T> action) {
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void upsert(Ask ask) {
+        withLock(() -> {
+            Ask previous = asksById.put(ask.id(), ask);
+            if (previous != null) {
+                asks.remove(previous);
+            }
+            asks.add(ask);
+            return null;
+        });
+    }
+
+    public void putIfAbsent(Ask ask) {
+        withLock(() -> {
+            if (!asksById.containsKey(ask.id())) {
+                asksById.put(ask.id(), ask);
+                asks.add(ask);
+            }
+            return null;
+        });
+    }
+
+    public Optional<Ask> remove(UUID askId) {
+        return withLock(() -> {
+            Ask removed = asksById.remove(askId);
+            if (removed != null) {
+                asks.remove(removed);
+            }
+            return Optional.ofNullable(removed);
+        });
+    }
+
+    /**
+     * Adds units to an ask already in the book; unknown asks are left to be
+     * hydrated from the database.
+     */
+    public void addQuantity(UUID askId, int delta) {
+        withLock(() -> {
+            Ask ask = asksById.get(askId);
+            if (ask != null && !ask.unlimited()) {
+                Ask updated = ask.withQuantity(ask.quantity() + delta);
+                asks.remove(ask);
+                asksById.put(askId, updated);
+                asks.add(updated);
+            }
+            return null;
+        });
+    }
+
+    public Optional<Ask> find(UUID askId) {
+        return withLock(() -> Optional.ofNullable(asksById.get(askId)));
+    }
+
+    /**
+     * Takes {@code quantity} units from the given ask. Unlimited asks (system
+     * listings) are never depleted. Returns the ask as it was before the fill.
+     */
+    public Ask reserve(UUID askId, int quantity) {
+        return withLock(() -> {
+            Ask ask = asksById.get(askId);
+            if (ask == null) {
+                throw new BusinessRuleException("Bu ürün artık satışta değil");
+            }
+            if (ask.quantity() < quantity) {
+                throw new BusinessRuleException("Pazarda yeterli miktarda ürün yok");
+            }
+            if (!ask.unlimited()) {
+                asks.remove(ask);
+                int remaining = ask.quantity() - quantity;
+                if (remaining > 0) {
+                    Ask updated = ask.withQuantity(remaining);
+                    asksById.put(askId, updated);
+                    asks.add(updated);
+                } else {
+                    asksById.remove(askId);
+                }
+            }
+            return ask;
+        });
+    }
+
+    /**
+     * Walks the asks in price-time priority and takes up to {@code quantity}
+     * units from those an incoming bid crosses. Asks of the bidder itself and
+     * below the requested quality are skipped.
+     */
+    public List<Fill<Ask>> takeAsks(BigDecimal maxPrice, BigDecimal minQuality, UUID buyerId, int quantity) {
+        return withLock(() -> {
+            List<Fill<Ask>> fills = new ArrayList<>();
+            int remaining = quantity;
+            for (Ask ask : new ArrayList<>(asks)) {
+                if (remaining == 0 || ask.price().compareTo(maxPrice) > 0) {
+                    break;
+                }
+                if (ask.sellerId().equals(buyerId) || !meetsQuality(ask.qualityScore(), minQuality)) {
+                    continue;
+                }
+                int take = Math.min(remaining, ask.quantity());
+                reserve(ask.id(), take);
+                fills.add(new Fill<>(ask, take));
+                remaining -= take;
+            }
+            return fills;
+        });
+    }
+
+    /**
+     * Walks the bids in price-time priority and takes up to {@code quantity}
+     * units from those an incoming ask crosses.
+     */
+    public List<Fill<Bid>> takeBids(BigDecimal askPrice, BigDecimal quality, UUID sellerId, int quantity) {
+        return withLock(() -> {
+            List<Fill<Bid>> fills = new ArrayList<>();
+            int remaining = quantity;
+            for (Bid bid : new ArrayList<>(bids)) {
+                if (remaining == 0 || bid.maxPrice().compareTo(askPrice) < 0) {
+                    break;
+                }
+                if (bid.buyerId().equals(sellerId) || !meetsQuality(quality, bid.minQuality())) {
+                    continue;
+                }
+                int take = Math.min(remaining, bid.quantity());
+                bids.remove(bid);
+                if (bid.quantity() > take) {
+                    Bid updated = bid.withQuantity(bid.quantity() - take);
+                    bidsById.put(bid.id(), updated);
+                    bids.add(updated);
+                } else {
+                    bidsById.remove(bid.id());
+                }
+                fills.add(new Fill<>(bid, take));
+                remaining -= take;
+            }
+            return fills;
+        });
+    }
+
+    public void upsertBid(Bid bid) {
+        withLock(() -> {
+            Bid previous = bidsById.put(bid.id(), bid);
+            if (previous != null) {
+                bids.remove(previous);
+            }
+            bids.add(bid);
+            return null;
+        });
+    }
+
+    public Optional<Bid> removeBid(UUID bidId) {
+        return withLock(() -> {
+            Bid removed = bidsById.remove(bidId);
+            if (removed != null) {
+                bids.remove(removed);
+            }
+            return Optional.ofNullable(removed);
+        });
+    }
+
+    /**
+     * Replaces both sides wholesale, used to resynchronize with the database.
+     */
+    public void replace(List<Ask> currentAsks, List<Bid> current) {
+        withLock(() -> {
+            asks.clear();
+            asksById.clear();
+            currentAsks.forEach(ask -> {
+                asksById.put(ask.id(), ask);
+                asks.add(ask);
+            });
+            bids.clear();
+            bidsById.clear();
+            current.forEach(bid -> {
+                bidsById.put(bid.id(), bid);
+                bids.add(bid);
+            });
+            return null;
+        });
+    }
+
+    public Optional<Ask> bestAsk() {
+        return withLock(() -> asks.isEmpty() ? Optional.empty() : Optional.of(asks.first()));
+    }
+
+    public List<Ask> asks() {
+        return withLock(() -> new ArrayList<>(asks));
+    }
+
+    public Optional<Bid> bestBid() {
+        return withLock(() -> bids.isEmpty() ? Optional.empty() : Optional.of(bids.first()));
+    }
+
+    public List<Bid> bids() {
+        return withLock(() -> new ArrayList<>(bids));
+    }
+
+    public boolean isEmpty() {
+        return withLock(() -> asksById.isEmpty() && bidsById.isEmpty());
+    }
+
+    private static boolean meetsQuality(BigDecimal quality, BigDecimal minQuality) {
+        return minQuality == null || (quality != null && quality.compareTo(minQuality) >= 0);
+    }
+
+    public record Ask(UUID id, UUID itemId, String itemName, UUID sellerId, String sellerUsername, BigDecimal price,
+            int quantity, BigDecimal qualityScore, ItemUnit unit, ItemTier tier, String sourceBuildingName,
+            LocalDateTime listedAt, boolean unlimited) {
+
+        public Ask withQuantity(int newQuantity) {
+            return new Ask(id, itemId, itemName, sellerId, sellerUsername, price, newQuantity, qualityScore, unit, tier,
+                    sourceBuildingName, listedAt, unlimited);
+        }
+    }
+
+    public record Bid(UUID id, UUID buyerId, String buyerUsername, BigDecimal maxPrice, int quantity,
+            BigDecimal minQuality, LocalDateTime placedAt) {
+
+        public Bid withQuantity(int newQuantity) {
+            return new Bid(id, buyerId, buyerUsername, maxPrice, newQuantity, minQuality, placedAt);
+        }
+    }
+
+    public record Fill<T>(T order, int quantity) {
+    }
+}
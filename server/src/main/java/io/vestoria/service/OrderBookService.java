@@ -0,0 +1,245 @@
+package io.vestoria.service;
+
+import io.vestoria.entity.BidOrderEntity;
+import io.vestoria.entity.MarketEntity;
+import io.vestoria.exception.BusinessRuleException;
+import io.vestoria.exception.ResourceNotFoundException;
+import io.vestoria.repository.BidOrderRepository;
+import io.vestoria.repository.MarketRepository;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Keeps one {@link OrderBook} per item name in memory. Fills are reserved
+ * against the book first and then written through to {@code market_items} /
+ * {@code market_bids} with conditional updates, so traders no longer race on
+ * row versions.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderBookService {
+
+    private final MarketRepository marketRepository;
+    private final BidOrderRepository bidOrderRepository;
+    private final SystemUserRegistry systemUserRegistry;
+
+    private final ConcurrentMap<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final ConcurrentMap<UUID, String> itemNameByListing = new ConcurrentHashMap<>();
+    // Books touched by a rolled-back transaction; reloaded from the database on next match
+    private final Set<String> staleBooks = ConcurrentHashMap.newKeySet();
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void loadBooks() {
+        List<MarketEntity> listings = marketRepository.findAllActiveForOrderBook();
+        listings.forEach(listing -> {
+            OrderBook.Ask ask = toAsk(listing);
+            itemNameByListing.put(ask.id(), ask.itemName());
+            book(ask.itemName()).putIfAbsent(ask);
+        });
+        List<BidOrderEntity> bids = bidOrderRepository.findAllActiveForOrderBook();
+        bids.forEach(bid -> book(bid.getItemName()).upsertBid(toBid(bid, bid.getRemainingQuantity())));
+        log.info("Order books loaded: {} active listings and {} bids across {} items", listings.size(), bids.size(),
+                books.size());
+    }
+
+    public OrderBook book(String itemName) {
+        return books.computeIfAbsent(itemName, OrderBook::new);
+    }
+
+    /**
+     * Returns the ask for a listing, hydrating it from the database when this
+     * node has not seen it yet.
+     */
+    public OrderBook.Ask getAsk(UUID listingId) {
+        String itemName = itemNameByListing.get(listingId);
+        if (itemName != null) {
+            Optional<OrderBook.Ask> ask = freshBook(itemName).find(listingId);
+            if (ask.isPresent()) {
+                return ask.get();
+            }
+        }
+
+        MarketEntity listing = marketRepository.findById(listingId)
+                .orElseThrow(() -> new ResourceNotFoundException("Pazar ürünü bulunamadı"));
+        if (!Boolean.TRUE.equals(listing.getIsActive())) {
+            throw new BusinessRuleException("Bu ürün artık satışta değil");
+        }
+        OrderBook.Ask ask = toAsk(listing);
+        itemNameByListing.put(listingId, ask.itemName());
+        book(ask.itemName()).putIfAbsent(ask);
+        return ask;
+    }
+
+    /**
+     * Reserves quantity on a listing under the item's book lock. If the
+     * surrounding transaction rolls back, the item's book is re-read from the
+     * database.
+     */
+    public OrderBook.Ask reserve(UUID listingId, int quantity) {
+        OrderBook.Ask ask = getAsk(listingId);
+        OrderBook.Ask reserved = book(ask.itemName()).reserve(listingId, quantity);
+        markStaleOnRollback(ask.itemName());
+        return reserved;
+    }
+
+    /**
+     * Takes the asks an incoming bid crosses, in price-time order.
+     */
+    public List<OrderBook.Fill<OrderBook.Ask>> takeAsks(String itemName, BigDecimal maxPrice, BigDecimal minQuality,
+            UUID buyerId, int quantity) {
+        List<OrderBook.Fill<OrderBook.Ask>> fills = freshBook(itemName).takeAsks(maxPrice, minQuality, buyerId,
+                quantity);
+        if (!fills.isEmpty()) {
+            markStaleOnRollback(itemName);
+        }
+        return fills;
+    }
+
+    /**
+     * Takes the standing bids an incoming ask crosses, in price-time order.
+     */
+    public List<OrderBook.Fill<OrderBook.Bid>> takeBids(String itemName, BigDecimal askPrice, BigDecimal quality,
+            UUID sellerId, int quantity) {
+        List<OrderBook.Fill<OrderBook.Bid>> fills = freshBook(itemName).takeBids(askPrice, quality, sellerId,
+                quantity);
+        if (!fills.isEmpty()) {
+            markStaleOnRollback(itemName);
+        }
+        return fills;
+    }
+
+    /**
+     * Publishes a saved listing to the book once the transaction commits.
+     */
+    public void onListed(MarketEntity listing, int openQuantity) {
+        OrderBook.Ask ask = toAsk(listing).withQuantity(openQuantity);
+        afterCommit(() -> {
+            itemNameByListing.put(ask.id(), ask.itemName());
+            book(ask.itemName()).upsert(ask);
+        });
+    }
+
+    /**
+     * Applies a quantity top-up on an existing listing once the transaction
+     * commits.
+     */
+    public void onRestocked(MarketEntity listing, int delta) {
+        UUID listingId = listing.getId();
+        String itemName = listing.getItem().getName();
+        afterCommit(() -> book(itemName).addQuantity(listingId, delta));
+    }
+
+    /**
+     * Rests the unfilled part of a bid in the book once the transaction commits.
+     */
+    public void onBidPlaced(BidOrderEntity bid, int openQuantity) {
+        if (openQuantity <= 0) {
+            return;
+        }
+        OrderBook.Bid resting = toBid(bid, openQuantity);
+        afterCommit(() -> book(bid.getItemName()).upsertBid(resting));
+    }
+
+    /**
+     * Pulls a listing out of the book immediately so no new fills can be
+     * reserved against it; restored from the database if the caller rolls back.
+     */
+    public void withdraw(UUID listingId) {
+        String itemName = itemNameByListing.get(listingId);
+        evict(listingId);
+        if (itemName != null) {
+            markStaleOnRollback(itemName);
+        }
+    }
+
+    public void withdrawBid(String itemName, UUID bidId) {
+        book(itemName).removeBid(bidId);
+        markStaleOnRollback(itemName);
+    }
+
+    public void evict(UUID listingId) {
+        String itemName = itemNameByListing.remove(listingId);
+        if (itemName != null) {
+            book(itemName).remove(listingId);
+        }
+    }
+
+    /**
+     * Marks a book for reload, e.g. after a write-through found the database
+     * ahead of the in-memory state.
+     */
+    public void markStale(String itemName) {
+        staleBooks.add(itemName);
+    }
+
+    private OrderBook freshBook(String itemName) {
+        OrderBook book = book(itemName);
+        if (staleBooks.remove(itemName)) {
+            List<OrderBook.Ask> asks = marketRepository.findActiveForOrderBookByItemName(itemName).stream()
+                    .map(this::toAsk).toList();
+            asks.forEach(ask -> itemNameByListing.put(ask.id(), itemName));
+            List<OrderBook.Bid> bids = bidOrderRepository.findActiveByItemName(itemName).stream()
+                    .map(bid -> toBid(bid, bid.getRemainingQuantity())).toList();
+            book.replace(asks, bids);
+        }
+        return book;
+    }
+
+    public OrderBook.Ask toAsk(MarketEntity listing) {
+        String sourceBuildingName = listing.getItem().getBuilding() != null
+                ? listing.getItem().getBuilding().getName()
+                : null;
+        return new OrderBook.Ask(listing.getId(), listing.getItem().getId(), listing.getItem().getName(),
+                listing.getSeller().getId(), listing.getSeller().getUsername(), listing.getPrice(),
+                listing.getQuantity(), listing.getItem().getQualityScore(), listing.getItem().getUnit(),
+                listing.getItem().getTier(), sourceBuildingName, listing.getCreatedTime(),
+                systemUserRegistry.isMarketMaker(listing.getSeller().getId()));
+    }
+
+    private OrderBook.Bid toBid(BidOrderEntity bid, int openQuantity) {
+        return new OrderBook.Bid(bid.getId(), bid.getBuyer().getId(), bid.getBuyer().getUsername(), bid.getMaxPrice(),
+                openQuantity, bid.getMinQuality(), bid.getCreatedTime());
+    }
+
+    private void markStaleOnRollback(String itemName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    staleBooks.add(itemName);
+                }
+            }
+        });
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,110 @@
+package io.vestoria.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vestoria.dto.response.MarketUpdateDto;
+import io.vestoria.entity.OutboxEventEntity;
+import io.vestoria.entity.UserEntity;
+import io.vestoria.enums.OutboxEventType;
+import io.vestoria.event.UserNotificationEvent;
+import io.vestoria.repository.OutboxEventRepository;
+import java.util.ArrayList;
+import java.util.List;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Transactional outbox for market updates and trade notifications. Events are
+ * written to {@code outbox_events} inside the caller's transaction, so they
+ * exist only if it commits, and a relay dispatches them in batches afterwards.
+ * With several nodes, only the relay holding the advisory lock dispatches.
+ * <p>
+ * Events are dispatched in the order they are claimed, which is not strictly
+ * the order of {@code seq}: a transaction can commit a lower seq after higher
+ * ones were already relayed. An event staged by a transaction that saw
+ * another's committed changes, such as a fill after the listing, does follow
+ * it. Notifications are written in the relay's transaction, together with the
+ * deletion of their events. Market updates are handed to the publisher when
+ * the relay commits, so a node that dies in between loses them and its
+ * clients reload on reconnect.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+
+    private static final long RELAY_LOCK_KEY = 0x6f7574626f78L; // "outbox"
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final MarketUpdatePublisher marketUpdatePublisher;
+    private final NotificationService notificationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+
+    @Value("${vestoria.outbox.batch-size:500}")
+    private int batchSize;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publishMarketUpdate(MarketUpdateDto update) {
+        stage(OutboxEventType.MARKET_UPDATE, update);
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void notifyUser(UserEntity user, String message) {
+        stage(OutboxEventType.USER_NOTIFICATION, new UserNotificationEvent(user.getId(), message));
+    }
+
+    @Scheduled(fixedDelayString = "${vestoria.outbox.poll-ms:100}")
+    public void relay() {
+        Integer dispatched;
+        do {
+            dispatched = transactionTemplate.execute(status -> relayBatch());
+        } while (dispatched != null && dispatched == batchSize);
+    }
+
+    private int relayBatch() {
+        if (!outboxEventRepository.tryRelayLock(RELAY_LOCK_KEY)) {
+            return 0;
+        }
+        List<OutboxEventEntity> batch = outboxEventRepository.claimBatch(batchSize);
+        if (batch.isEmpty()) {
+            return 0;
+        }
+
+        List<UserNotificationEvent> notifications = new ArrayList<>();
+        for (OutboxEventEntity event : batch) {
+            try {
+                switch (event.getType()) {
+                    // Buffered by the publisher once this relay transaction commits
+                    case MARKET_UPDATE -> marketUpdatePublisher
+                            .publish(objectMapper.readValue(event.getPayload(), MarketUpdateDto.class));
+                    case USER_NOTIFICATION -> notifications
+                            .add(objectMapper.readValue(event.getPayload(), UserNotificationEvent.class));
+                }
+            } catch (JsonProcessingException e) {
+                log.error("Dropping unreadable outbox event {}: {}", event.getId(), e.getMessage());
+            }
+        }
+        if (!notifications.isEmpty()) {
+            notificationService.createNotifications(notifications);
+        }
+        outboxEventRepository.deleteAllInBatch(batch);
+        log.debug("Relayed {} outbox events", batch.size());
+        return batch.size();
+    }
+
+    private void stage(OutboxEventType type, Object payload) {
+        try {
+            outboxEventRepository.save(OutboxEventEntity.builder().type(type)
+                    .payload(objectMapper.writeValueAsString(payload)).build());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Outbox event could not be serialized", e);
+        }
+    }
+}
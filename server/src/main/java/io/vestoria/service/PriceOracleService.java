@@ -0,0 +1,70 @@
+package io.vestoria.service;
+
+import io.vestoria.constant.Constants;
+import io.vestoria.dto.response.MarketPricesDto;
+import io.vestoria.entity.ItemMarketStatsEntity;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicReference;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+/**
+ * Recomputes every item price in one pass on a fixed cadence and publishes
+ * the result as an immutable snapshot. Readers never trigger aggregate
+ * queries; items missing from the snapshot are priced on demand.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PriceOracleService {
+
+    private final EconomicService economicService;
+    private final MarketStatsService marketStatsService;
+    private final DemandCounterService demandCounterService;
+
+    private final AtomicReference<MarketPricesDto> snapshot = new AtomicReference<>();
+
+    @Scheduled(fixedRateString = "${vestoria.prices.refresh-ms:60000}",
+            initialDelayString = "${vestoria.prices.refresh-ms:60000}")
+    public void refresh() {
+        // One query for all supply rows; demand comes from the in-memory counters
+        Map<String, ItemMarketStatsEntity> stats = marketStatsService.getAllStats();
+
+        Map<String, BigDecimal> prices = new TreeMap<>();
+        for (String itemName : Constants.BASE_PRICES.keySet()) {
+            prices.put(itemName, price(itemName, stats.get(itemName)));
+        }
+        // Traded items outside the base price table still get a price
+        stats.forEach((itemName, row) -> prices.computeIfAbsent(itemName, name -> price(name, row)));
+
+        snapshot.set(MarketPricesDto.builder().prices(Collections.unmodifiableMap(prices))
+                .computedAt(LocalDateTime.now()).build());
+        log.debug("Price snapshot refreshed for {} items", prices.size());
+    }
+
+    public MarketPricesDto getSnapshot() {
+        MarketPricesDto current = snapshot.get();
+        if (current == null) {
+            // First request before the scheduled run
+            refresh();
+            current = snapshot.get();
+        }
+        return current;
+    }
+
+    public BigDecimal getPrice(String itemName) {
+        BigDecimal price = getSnapshot().getPrices().get(itemName);
+        return price != null ? price : economicService.getMarketPrice(itemName);
+    }
+
+    private BigDecimal price(String itemName, ItemMarketStatsEntity stats) {
+        long supply = stats != null && stats.getActiveQuantity() != null ? stats.getActiveQuantity() : 0L;
+        return economicService.calculatePrice(itemName, supply, demandCounterService.getVolume24h(itemName));
+    }
+}
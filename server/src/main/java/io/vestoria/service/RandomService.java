@@ -0,0 +1,64 @@
+package io.vestoria.service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Source of randomness for production and sales outcomes. Every outcome draws
+ * from its own {@link SplittableRandom} built from a seed that is recorded
+ * with the outcome and its inputs in {@code random_outcomes}, so it can be
+ * replayed exactly. New seeds come from per-thread streams, so threads never
+ * contend on a shared generator. With {@code vestoria.random.seed} set, seeds
+ * are derived from it, the entity and the tick of the draw instead. That does
+ * not make whole runs repeat: entity ids are random and ticks come from the
+ * clock, so replay is per outcome either way.
+ */
+@Service
+public class RandomService {
+
+    private final Long fixedSeed;
+    private final SplittableRandom root;
+    private final ThreadLocal<SplittableRandom> threadStreams;
+
+    public RandomService(@Value("${vestoria.random.seed:#{null}}") Long fixedSeed) {
+        this.fixedSeed = fixedSeed;
+        this.root = fixedSeed != null ? new SplittableRandom(fixedSeed) : new SplittableRandom();
+        this.threadStreams = ThreadLocal.withInitial(this::splitRoot);
+    }
+
+    /**
+     * Seed for an outcome of the given building or shop at the given tick.
+     */
+    public long seedFor(UUID entityId, LocalDateTime tick) {
+        if (fixedSeed == null) {
+            return threadStreams.get().nextLong();
+        }
+        long seed = mix(fixedSeed ^ entityId.getMostSignificantBits());
+        seed = mix(seed ^ entityId.getLeastSignificantBits());
+        return mix(seed ^ tick.atZone(ZoneId.systemDefault()).toEpochSecond());
+    }
+
+    /**
+     * The generator of one outcome. Draws made at different times for the
+     * same outcome use separate streams of the same seed.
+     */
+    public SplittableRandom forSeed(long seed, int stream) {
+        return new SplittableRandom(mix(seed + stream * 0x9e3779b97f4a7c15L));
+    }
+
+    // SplittableRandom.split is not thread-safe; each thread splits once
+    private synchronized SplittableRandom splitRoot() {
+        return root.split();
+    }
+
+    // Stafford variant 13 of the MurmurHash3 finalizer, as used by SplittableRandom
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,78 @@
+package io.vestoria.service;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Shared buckets for multi-node deployments: one hash per item, field = epoch
+ * minute, value = volume. Fields that fell out of the window are pruned on
+ * read.
+ */
+@Component
+@ConditionalOnProperty(name = "vestoria.demand.store", havingValue = "redis")
+@RequiredArgsConstructor
+public class RedisDemandCounterStore implements DemandCounterStore {
+
+    private static final String KEY_PREFIX = "demand:";
+    private static final String REBUILT_KEY = KEY_PREFIX + "rebuilt";
+    private static final Duration TTL = Duration.ofMinutes(WINDOW_MINUTES + 60L);
+
+    private final StringRedisTemplate redisTemplate;
+
+    @Override
+    public void add(String itemName, long minute, long quantity) {
+        String key = KEY_PREFIX + itemName;
+        redisTemplate.opsForHash().increment(key, Long.toString(minute), quantity);
+        redisTemplate.expire(key, TTL);
+    }
+
+    @Override
+    public long volumeSince(String itemName, long fromMinute, long nowMinute) {
+        String key = KEY_PREFIX + itemName;
+        Map<Object, Object> buckets = redisTemplate.opsForHash().entries(key);
+        long total = 0L;
+        List<Object> expired = new ArrayList<>();
+        for (Map.Entry<Object, Object> bucket : buckets.entrySet()) {
+            long minute = Long.parseLong((String) bucket.getKey());
+            if (minute <= nowMinute - WINDOW_MINUTES) {
+                expired.add(bucket.getKey());
+            } else if (minute >= fromMinute && minute <= nowMinute) {
+                total += Long.parseLong((String) bucket.getValue());
+            }
+        }
+        if (!expired.isEmpty()) {
+            redisTemplate.opsForHash().delete(key, expired.toArray());
+        }
+        return total;
+    }
+
+    @Override
+    public boolean rebuild(Map<String, Map<Long, Long>> volumes, long nowMinute) {
+        // The first node to start after the data expired rebuilds; the rest reuse it
+        Boolean claimed = redisTemplate.opsForValue().setIfAbsent(REBUILT_KEY, Long.toString(nowMinute), TTL);
+        if (!Boolean.TRUE.equals(claimed)) {
+            return false;
+        }
+        volumes.forEach((itemName, byMinute) -> {
+            Map<String, String> fields = new HashMap<>();
+            byMinute.forEach((minute, quantity) -> {
+                if (minute > nowMinute - WINDOW_MINUTES) {
+                    fields.put(Long.toString(minute), Long.toString(quantity));
+                }
+            });
+            if (!fields.isEmpty()) {
+                String key = KEY_PREFIX + itemName;
+                redisTemplate.opsForHash().putAll(key, fields);
+                redisTemplate.expire(key, TTL);
+            }
+        });
+        return true;
+    }
+}
@@ -0,0 +1,116 @@
+package io.vestoria.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vestoria.dto.response.MarketUpdateDto;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+/**
+ * Multi-node fan-out over Redis pub/sub. Every tick's batch is published as one
+ * message tagged with the sending node and a batch number; receivers skip their
+ * own batches and any batch they have already seen.
+ */
+@Component
+@ConditionalOnProperty(name = "vestoria.websocket.fanout", havingValue = "redis")
+@RequiredArgsConstructor
+@Slf4j
+public class RedisMarketFanout implements MarketFanout, MessageListener {
+
+    private static final String CHANNEL = "market:updates";
+    private static final int SEEN_BATCHES = 4096;
+
+    private final StringRedisTemplate redisTemplate;
+    private final RedisConnectionFactory connectionFactory;
+    private final ObjectMapper objectMapper;
+
+    private final String nodeId = UUID.randomUUID().toString();
+    private final AtomicLong batchCounter = new AtomicLong();
+    private final Set<String> seenBatches = Collections
+            .newSetFromMap(new LinkedHashMap<String, Boolean>(16, 0.75f, false) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                    return size() > SEEN_BATCHES;
+                }
+            });
+
+    private RedisMessageListenerContainer container;
+    private volatile Consumer<List<MarketUpdateDto>> handler = updates -> {
+    };
+
+    @PostConstruct
+    public void subscribe() {
+        container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(connectionFactory);
+        container.addMessageListener(this, new ChannelTopic(CHANNEL));
+        container.afterPropertiesSet();
+        container.start();
+        log.info("Market fan-out joined {} as node {}", CHANNEL, nodeId);
+    }
+
+    @PreDestroy
+    public void unsubscribe() throws Exception {
+        if (container != null) {
+            container.destroy();
+        }
+    }
+
+    @Override
+    public void broadcast(List<MarketUpdateDto> updates) {
+        try {
+            String payload = objectMapper
+                    .writeValueAsString(new Batch(nodeId, batchCounter.incrementAndGet(), updates));
+            redisTemplate.convertAndSend(CHANNEL, payload);
+        } catch (Exception e) {
+            // Local clients already have the batch; other nodes miss it and catch up via resync
+            log.warn("Failed to fan out {} market updates: {}", updates.size(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void onRemote(Consumer<List<MarketUpdateDto>> handler) {
+        this.handler = handler;
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Batch batch;
+        try {
+            batch = objectMapper.readValue(new String(message.getBody(), StandardCharsets.UTF_8), Batch.class);
+        } catch (JsonProcessingException e) {
+            log.warn("Ignoring unreadable market fan-out message: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(batch.node())) {
+            return;
+        }
+        synchronized (seenBatches) {
+            if (!seenBatches.add(batch.node() + ":" + batch.number())) {
+                return;
+            }
+        }
+        handler.accept(batch.updates());
+    }
+
+    record Batch(String node, long number, List<MarketUpdateDto> updates) {
+    }
+}
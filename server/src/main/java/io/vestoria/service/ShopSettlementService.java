@@ -0,0 +1,154 @@
+package io.vestoria.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.vestoria.dto.ExpiredSaleDto;
+import io.vestoria.dto.MarketSnapshotDto;
+import io.vestoria.repository.BuildingRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Settles shops whose sales period has ended. Expired shops are leased in
+ * batches with {@code SKIP LOCKED}, so several nodes share the work without
+ * claiming the same shops, and settled on a bounded pool, each shop in its own
+ * short transaction. All shops of a run price against one market snapshot. A
+ * failed shop stays expired and is retried once its lease runs out, without
+ * affecting the others.
+ */
+@Service
+@ConditionalOnProperty(name = "vestoria.settlement.enabled", havingValue = "true")
+@RequiredArgsConstructor
+@Slf4j
+public class ShopSettlementService {
+
+    private final BuildingRepository buildingRepository;
+    private final BotService botService;
+    private final MarketService marketService;
+    private final TransactionTemplate transactionTemplate;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${vestoria.settlement.batch-size:100}")
+    private int batchSize;
+
+    @Value("${vestoria.settlement.parallelism:4}")
+    private int parallelism;
+
+    @Value("${vestoria.settlement.lease-ms:60000}")
+    private long leaseMs;
+
+    private ExecutorService executor;
+    private Counter settledShops;
+    private Counter failedShops;
+    private Timer settlementLag;
+    private Timer settlementDuration;
+
+    @PostConstruct
+    public void start() {
+        executor = Executors.newFixedThreadPool(parallelism, Thread.ofPlatform().name("settlement-", 0).factory());
+        settledShops = Counter.builder("settlement.shops.settled").description("Shops whose sales were settled")
+                .register(meterRegistry);
+        failedShops = Counter.builder("settlement.shops.failed").description("Shop settlements that rolled back")
+                .register(meterRegistry);
+        settlementLag = Timer.builder("settlement.lag").description("Time from a sale's end to its settlement")
+                .register(meterRegistry);
+        settlementDuration = Timer.builder("settlement.shop.duration").description("Time to settle one shop")
+                .register(meterRegistry);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdown();
+    }
+
+    @Scheduled(fixedDelayString = "${vestoria.settlement.poll-ms:5000}")
+    public void settleExpiredSales() {
+        List<ExpiredSaleDto> claimed;
+        MarketSnapshotDto market = null;
+        int settled;
+        do {
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime leaseUntil = now.plus(Duration.ofMillis(leaseMs));
+            UUID claimId = UUID.randomUUID();
+            claimed = transactionTemplate.execute(status -> {
+                buildingRepository.claimExpiredSales(now, leaseUntil, claimId, batchSize);
+                return buildingRepository.findClaimedSales(claimId);
+            });
+            if (claimed == null || claimed.isEmpty()) {
+                return;
+            }
+            if (market == null) {
+                // Taken once the run has work; every shop in the run prices against it
+                market = marketService.takeMarketSnapshot();
+            }
+            MarketSnapshotDto runMarket = market;
+
+            // Shops of one owner all update the owner's row, so they are settled one after another
+            AtomicInteger settledInBatch = new AtomicInteger();
+            List<Callable<Void>> tasks = claimed.stream()
+                    .collect(Collectors.groupingBy(ExpiredSaleDto::getOwnerId, LinkedHashMap::new,
+                            Collectors.toList()))
+                    .values().stream().<Callable<Void>>map(sales -> () -> {
+                        for (ExpiredSaleDto sale : sales) {
+                            if (settle(sale, runMarket)) {
+                                settledInBatch.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }).toList();
+            try {
+                executor.invokeAll(tasks);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            settled = settledInBatch.get();
+            log.debug("Settled {} of {} expired shops", settled, claimed.size());
+            // Stop on a batch that made no progress, e.g. shops that keep failing
+        } while (claimed.size() == batchSize && settled > 0);
+    }
+
+    private boolean settle(ExpiredSaleDto sale, MarketSnapshotDto market) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            UUID shopId = sale.getId();
+            Boolean settled = transactionTemplate.execute(status -> buildingRepository
+                    .lockExpiredSale(shopId, LocalDateTime.now()).map(shop -> {
+                        shop.setSettlementLeaseUntil(null);
+                        shop.setSettlementClaimId(null);
+                        botService.processShopSales(shopId, market);
+                        return true;
+                    }).orElse(false));
+            if (Boolean.TRUE.equals(settled)) {
+                settledShops.increment();
+                settlementLag.record(Duration.between(sale.getSalesEndsAt(), LocalDateTime.now()));
+                return true;
+            }
+            return false;
+        } catch (RuntimeException e) {
+            failedShops.increment();
+            log.warn("Settling sales of shop {} failed: {}", sale.getId(), e.getMessage());
+            return false;
+        } finally {
+            sample.stop(settlementDuration);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+package io.vestoria.service;
+
+import io.vestoria.entity.UserEntity;
+import io.vestoria.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import java.math.BigDecimal;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Ids of the users the game itself runs: the NPC market makers, which sell
+ * from unlimited stock and buy from shops, and the admin. They are resolved
+ * (and created on an empty database) once at startup, so hot paths compare
+ * ids instead of looking users up by name. Not to be confused with the
+ * ledger's {@link io.vestoria.enums.SystemAccount}s, which are not users.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class SystemUserRegistry {
+
+    private final UserRepository userRepository;
+    private final PasswordEncoder passwordEncoder;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${vestoria.system-users.market-makers:vestoria}")
+    private List<String> marketMakerUsernames;
+
+    @Value("${vestoria.system-users.admin:admin}")
+    private String adminUsername;
+
+    private UUID primaryMarketMakerId;
+    private Set<UUID> marketMakerIds;
+    private UUID adminId;
+
+    @PostConstruct
+    public void resolve() {
+        transactionTemplate.executeWithoutResult(status -> {
+            Set<UUID> ids = new LinkedHashSet<>();
+            for (String username : marketMakerUsernames) {
+                ids.add(userRepository.findByUsername(username).orElseGet(() -> createMarketMaker(username)).getId());
+            }
+            marketMakerIds = Set.copyOf(ids);
+            primaryMarketMakerId = ids.iterator().next();
+            adminId = userRepository.findByUsername(adminUsername).orElseGet(this::createAdmin).getId();
+        });
+        log.info("Resolved {} market makers and the admin account", marketMakerIds.size());
+    }
+
+    /**
+     * The market maker that owns the seeded stock and buys from NPC shops.
+     */
+    public UUID getPrimaryMarketMakerId() {
+        return primaryMarketMakerId;
+    }
+
+    public boolean isMarketMaker(UUID userId) {
+        return marketMakerIds.contains(userId);
+    }
+
+    public Set<UUID> getMarketMakerIds() {
+        return marketMakerIds;
+    }
+
+    public UUID getAdminId() {
+        return adminId;
+    }
+
+    private UserEntity createMarketMaker(String username) {
+        log.info("Creating market maker account {}", username);
+        return userRepository.save(UserEntity.builder().username(username)
+                .password(passwordEncoder.encode(username + "_123")).email("bot@" + username + ".io")
+                .balance(BigDecimal.valueOf(900_000_000)) // Rich bot
+                .level(100).xp(0L).isAdmin(false).build());
+    }
+
+    private UserEntity createAdmin() {
+        log.info("Creating admin account {}", adminUsername);
+        return userRepository.save(UserEntity.builder().username(adminUsername)
+                .password(passwordEncoder.encode("admin123")).email(adminUsername + "@vestoria.io")
+                .balance(BigDecimal.valueOf(999_999_999_999_999L)).level(100).xp(0L).isAdmin(true).build());
+    }
+}
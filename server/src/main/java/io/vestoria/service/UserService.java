@@ -25,6 +25,7 @@ public class UserService {
     private final BuildingRepository buildingRepository;
     private final UserConverter userConverter;
     private final AuthConverter authConverter;
+    private final LedgerService ledgerService;
 
     @Transactional
     public void addXp(UserEntity user, long amount) {
@@ -76,6 +77,6 @@ public class UserService {
         UserEntity user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        return authConverter.toResponseDto(user);
+        return authConverter.toResponseDto(user, ledgerService.getBalance(user));
     }
 }
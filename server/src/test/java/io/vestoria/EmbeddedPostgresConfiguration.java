@@ -0,0 +1,31 @@
+package io.vestoria;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import java.io.IOException;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Throwaway PostgreSQL for the simulation and repository tests, so runs
+ * neither need nor touch a real database. Native queries rely on PostgreSQL,
+ * hence no H2.
+ */
+@TestConfiguration(proxyBeanMethods = false)
+public class EmbeddedPostgresConfiguration {
+
+    @Bean(destroyMethod = "close")
+    EmbeddedPostgres embeddedPostgres() throws IOException {
+        return EmbeddedPostgres.builder().start();
+    }
+
+    // Pooled like the real application; sized by spring.datasource.hikari.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    HikariDataSource dataSource(EmbeddedPostgres embeddedPostgres) {
+        return DataSourceBuilder.create().type(HikariDataSource.class)
+                .url(embeddedPostgres.getJdbcUrl("postgres", "postgres")).username("postgres").build();
+    }
+}
@@ -0,0 +1,142 @@
+package io.vestoria.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vestoria.EmbeddedPostgresConfiguration;
+import io.vestoria.entity.ItemEntity;
+import io.vestoria.entity.MarketEntity;
+import io.vestoria.entity.UserEntity;
+import io.vestoria.enums.ItemTier;
+import io.vestoria.enums.ItemUnit;
+import jakarta.persistence.EntityManager;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * The stack key is an expression index that ddl-auto cannot create, so the
+ * native upsert and the merge that makes the key possible run against
+ * PostgreSQL here.
+ */
+@DataJpaTest(properties = "spring.jpa.show-sql=false")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(EmbeddedPostgresConfiguration.class)
+class ItemRepositoryTest {
+
+    private static final BigDecimal QUALITY = new BigDecimal("7.50");
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private MarketRepository marketRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private UserEntity owner;
+
+    @BeforeEach
+    void createOwner() {
+        owner = user();
+    }
+
+    @Test
+    void upsertStartsAStackAndThenAddsToIt() {
+        itemRepository.createStackIndex();
+
+        upsert(owner, QUALITY, 3);
+        upsert(owner, QUALITY, 4);
+
+        ItemEntity stack = stack(owner, QUALITY);
+        assertThat(stack.getQuantity()).isEqualTo(7);
+        assertThat(stack.getVersion()).isEqualTo(1L);
+        assertThat(countStacks(owner)).isEqualTo(1);
+    }
+
+    @Test
+    void upsertKeepsQualitiesAndOwnersApart() {
+        itemRepository.createStackIndex();
+        UserEntity other = user();
+
+        upsert(owner, QUALITY, 3);
+        upsert(owner, new BigDecimal("9.00"), 4);
+        upsert(other, QUALITY, 5);
+
+        assertThat(stack(owner, QUALITY).getQuantity()).isEqualTo(3);
+        assertThat(stack(owner, new BigDecimal("9.00")).getQuantity()).isEqualTo(4);
+        assertThat(stack(other, QUALITY).getQuantity()).isEqualTo(5);
+    }
+
+    @Test
+    void mergeFoldsDuplicatesIntoTheOldestStackAndMovesTheirListings() {
+        ItemEntity oldest = item(owner, QUALITY, 3, NOW.minusHours(2));
+        ItemEntity newer = item(owner, QUALITY, 4, NOW.minusHours(1));
+        ItemEntity newest = item(owner, QUALITY, 5, NOW);
+        ItemEntity otherQuality = item(owner, new BigDecimal("9.00"), 6, NOW);
+        MarketEntity listing = marketRepository.saveAndFlush(MarketEntity.builder().seller(owner).item(newer)
+                .price(BigDecimal.TEN).quantity(2).isActive(true).build());
+        entityManager.clear();
+
+        assertThat(itemRepository.mergeDuplicateStacks()).isEqualTo(2);
+        entityManager.clear();
+
+        assertThat(itemRepository.findById(oldest.getId()).orElseThrow().getQuantity()).isEqualTo(12);
+        assertThat(itemRepository.findById(newer.getId())).isEmpty();
+        assertThat(itemRepository.findById(newest.getId())).isEmpty();
+        assertThat(itemRepository.findById(otherQuality.getId()).orElseThrow().getQuantity()).isEqualTo(6);
+        assertThat(marketRepository.findById(listing.getId()).orElseThrow().getItem().getId())
+                .isEqualTo(oldest.getId());
+
+        // The key the merge makes room for now holds, and the upsert finds the kept stack
+        itemRepository.createStackIndex();
+        upsert(owner, QUALITY, 1);
+        assertThat(itemRepository.findById(oldest.getId()).orElseThrow().getQuantity()).isEqualTo(13);
+    }
+
+    private void upsert(UserEntity user, BigDecimal quality, int quantity) {
+        itemRepository.upsertStack(user.getId(), null, "Ekmek", ItemUnit.PIECE.name(), ItemTier.LOW.name(), quality,
+                BigDecimal.ONE, BigDecimal.ONE, quantity, NOW);
+        entityManager.clear();
+    }
+
+    private ItemEntity stack(UserEntity user, BigDecimal quality) {
+        return itemRepository.findByOwnerIdAndBuildingIdAndNameAndQualityScore(user.getId(), null, "Ekmek", quality)
+                .orElseThrow();
+    }
+
+    private long countStacks(UserEntity user) {
+        return itemRepository.findByOwnerIdAndBuildingIsNull(user.getId()).size();
+    }
+
+    private ItemEntity item(UserEntity user, BigDecimal quality, int quantity, LocalDateTime createdTime) {
+        ItemEntity item = itemRepository.saveAndFlush(ItemEntity.builder().owner(user).name("Ekmek")
+                .unit(ItemUnit.PIECE).tier(ItemTier.LOW).qualityScore(quality).price(BigDecimal.ONE)
+                .cost(BigDecimal.ONE).quantity(quantity).build());
+        // Creation times decide which duplicate is kept
+        jdbcTemplate.update("UPDATE items SET created_time = ? WHERE id = ?", createdTime, item.getId());
+        return item;
+    }
+
+    private UserEntity user() {
+        String username = "u" + UUID.randomUUID().toString().substring(0, 8);
+        return userRepository.saveAndFlush(UserEntity.builder().username(username).password("x")
+                .email(username + "@vestoria.io").balance(BigDecimal.ZERO).level(1).xp(0L).isAdmin(false)
+                .buildings(List.of()).build());
+    }
+}
@@ -0,0 +1,53 @@
+package io.vestoria.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+
+class ItemSearchServiceTest {
+
+    private final ItemSearchService search = new ItemSearchService();
+
+    @Test
+    void resolvesFullAndPartialNames() {
+        assertEquals(Set.of("Ekmek"), search.resolve("ekmek"));
+        assertTrue(search.resolve("kolat").contains("Çikolata"));
+    }
+
+    @Test
+    void ignoresCaseAndTurkishDiacritics() {
+        assertTrue(search.resolve("cikolata").contains("Çikolata"));
+        assertTrue(search.resolve("ÇİKOLATA").contains("Çikolata"));
+        assertTrue(search.resolve("sut").contains("Süt"));
+        assertTrue(search.resolve("  SÜT ").contains("Süt"));
+    }
+
+    @Test
+    void scansForTermsShorterThanATrigram() {
+        assertTrue(search.resolve("el").contains("Elma"));
+        search.resolve("e").forEach(name -> assertTrue(ItemSearchService.fold(name).contains("e"), name));
+    }
+
+    @Test
+    void confirmsTrigramHitsAsSubstrings() {
+        // Every trigram of "mekmek" occurs in "ekmek", the term itself does not
+        assertEquals(Set.of(), search.resolve("mekmek"));
+        search.resolve("ek").forEach(name -> assertTrue(ItemSearchService.fold(name).contains("ek"), name));
+    }
+
+    @Test
+    void unknownAndBlankTermsResolveToNothing() {
+        assertEquals(Set.of(), search.resolve("xyzzy"));
+        assertEquals(Set.of(), search.resolve("   "));
+        assertEquals(Set.of(), search.resolve(null));
+    }
+
+    @Test
+    void foldsToLowerCaseAscii() {
+        assertEquals("seftali", ItemSearchService.fold(" Şeftali "));
+        assertEquals("inek", ItemSearchService.fold("İnek"));
+        assertEquals("kiyafet", ItemSearchService.fold("KIYAFET"));
+    }
+}
@@ -0,0 +1,131 @@
+package io.vestoria.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.vestoria.EmbeddedPostgresConfiguration;
+import io.vestoria.dto.request.BatchBuyRequestDto;
+import io.vestoria.dto.request.ListItemRequestDto;
+import io.vestoria.dto.request.RegisterRequestDto;
+import io.vestoria.dto.response.BatchBuyResponseDto;
+import io.vestoria.entity.ItemEntity;
+import io.vestoria.entity.MarketEntity;
+import io.vestoria.entity.UserEntity;
+import io.vestoria.enums.ItemTier;
+import io.vestoria.enums.ItemUnit;
+import io.vestoria.enums.LedgerReason;
+import io.vestoria.enums.SystemAccount;
+import io.vestoria.repository.ItemRepository;
+import io.vestoria.repository.MarketRepository;
+import io.vestoria.repository.UserRepository;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Batches write their fills through to the listing rows, so two batches
+ * naming the same listings in opposite order run against PostgreSQL here.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {"spring.cache.type=simple",
+        "spring.cache.cache-names=", "spring.jpa.show-sql=false", "vestoria.settlement.enabled=false"})
+@Import(EmbeddedPostgresConfiguration.class)
+class MarketBatchBuyTest {
+
+    private static final String PASSWORD = "Batch-pass1!";
+    private static final int ROUNDS = 20;
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private MarketService marketService;
+    @Autowired
+    private LedgerService ledgerService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private MarketRepository marketRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void oppositeOrderBatchesOnTheSameListingsBothComplete() throws Exception {
+        UserEntity seller = user();
+        MarketEntity bread = listing(seller, "Ekmek");
+        MarketEntity apples = listing(seller, "Elma");
+        UserEntity first = user();
+        UserEntity second = user();
+
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            for (int round = 0; round < ROUNDS; round++) {
+                CyclicBarrier start = new CyclicBarrier(2);
+                Future<BatchBuyResponseDto> forward = pool.submit(() -> {
+                    start.await();
+                    return marketService.buyBatch(first.getUsername(), batch(bread, apples));
+                });
+                Future<BatchBuyResponseDto> backward = pool.submit(() -> {
+                    start.await();
+                    return marketService.buyBatch(second.getUsername(), batch(apples, bread));
+                });
+
+                assertThat(forward.get(30, TimeUnit.SECONDS).getItems()).allMatch(BatchBuyResponseDto.Line::isBought);
+                assertThat(backward.get(30, TimeUnit.SECONDS).getItems()).allMatch(BatchBuyResponseDto.Line::isBought);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertThat(marketRepository.findById(bread.getId()).orElseThrow().getQuantity()).isEqualTo(100 - 2 * ROUNDS);
+        assertThat(marketRepository.findById(apples.getId()).orElseThrow().getQuantity()).isEqualTo(100 - 2 * ROUNDS);
+    }
+
+    private MarketEntity listing(UserEntity seller, String itemName) {
+        ItemEntity stack = itemRepository.saveAndFlush(ItemEntity.builder().owner(seller).name(itemName)
+                .unit(ItemUnit.PIECE).tier(ItemTier.LOW).qualityScore(BigDecimal.ONE).price(BigDecimal.ONE)
+                .cost(BigDecimal.ONE).quantity(100).build());
+        ListItemRequestDto request = new ListItemRequestDto();
+        request.setItemId(stack.getId());
+        request.setQuantity(100);
+        request.setPrice(BigDecimal.ONE);
+        return marketService.listItem(seller.getUsername(), stack.getId(), request);
+    }
+
+    private static BatchBuyRequestDto batch(MarketEntity... listings) {
+        List<BatchBuyRequestDto.Line> lines = new ArrayList<>();
+        for (MarketEntity listing : listings) {
+            BatchBuyRequestDto.Line line = new BatchBuyRequestDto.Line();
+            line.setListingId(listing.getId());
+            line.setQuantity(1);
+            lines.add(line);
+        }
+        BatchBuyRequestDto request = new BatchBuyRequestDto();
+        request.setItems(lines);
+        return request;
+    }
+
+    private UserEntity user() {
+        String username = "b" + UUID.randomUUID().toString().substring(0, 8);
+        RegisterRequestDto registration = new RegisterRequestDto();
+        registration.setUsername(username);
+        registration.setPassword(PASSWORD);
+        registration.setEmail(username + "@vestoria.io");
+        authService.register(registration);
+        UUID userId = userRepository.findByUsername(username).orElseThrow().getId();
+        transactionTemplate.executeWithoutResult(status -> ledgerService.transfer(
+                LedgerAccount.system(SystemAccount.GENESIS), LedgerAccount.user(userId), new BigDecimal("1000"),
+                LedgerReason.OPENING_BALANCE, userId));
+        return userRepository.findById(userId).orElseThrow();
+    }
+}
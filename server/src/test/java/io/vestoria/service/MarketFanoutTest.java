@@ -0,0 +1,189 @@
+package io.vestoria.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vestoria.dto.response.MarketUpdateDto;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import redis.embedded.RedisServer;
+
+/**
+ * Two fan-out nodes sharing an embedded Redis, as two application nodes share
+ * the real one.
+ */
+class MarketFanoutTest {
+
+    private static final long WAIT_MS = 5000;
+
+    private static RedisServer redis;
+    private static LettuceConnectionFactory connectionFactory;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<RedisMarketFanout> nodes = new ArrayList<>();
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redis = new RedisServer(port);
+        redis.start();
+        connectionFactory = new LettuceConnectionFactory(new RedisStandaloneConfiguration("localhost", port));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+    }
+
+    @AfterAll
+    static void stopRedis() throws IOException {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @AfterEach
+    void leaveChannel() throws Exception {
+        for (RedisMarketFanout node : nodes) {
+            node.unsubscribe();
+        }
+    }
+
+    @Test
+    void batchReachesOtherNodesButNotItsSender() throws InterruptedException {
+        RedisMarketFanout sender = node();
+        RedisMarketFanout receiver = node();
+        BlockingQueue<List<MarketUpdateDto>> sent = new LinkedBlockingQueue<>();
+        BlockingQueue<List<MarketUpdateDto>> received = new LinkedBlockingQueue<>();
+        sender.onRemote(sent::add);
+        receiver.onRemote(received::add);
+
+        MarketUpdateDto update = buy("Ekmek");
+        sender.broadcast(List.of(update));
+
+        assertEquals(List.of(update), received.poll(WAIT_MS, TimeUnit.MILLISECONDS));
+        assertNull(sent.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    void repeatedBatchIsHandledOnce() throws Exception {
+        RedisMarketFanout receiver = node();
+        List<List<MarketUpdateDto>> received = new ArrayList<>();
+        receiver.onRemote(received::add);
+
+        byte[] body = objectMapper.writeValueAsBytes(new RedisMarketFanout.Batch("other", 7, List.of(buy("Ekmek"))));
+        receiver.onMessage(new DefaultMessage("market:updates".getBytes(StandardCharsets.UTF_8), body), null);
+        receiver.onMessage(new DefaultMessage("market:updates".getBytes(StandardCharsets.UTF_8), body), null);
+
+        assertEquals(1, received.size());
+    }
+
+    @Test
+    void remoteBatchIsRoutedToMarketTopics() {
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        MarketSubscriptionTracker subscriptionTracker = mock(MarketSubscriptionTracker.class);
+        OrderBookService orderBookService = mock(OrderBookService.class);
+        MarketEventLog eventLog = new MarketEventLog(100);
+        when(subscriptionTracker.hasSubscribers(anyString())).thenReturn(true);
+        when(orderBookService.book("Ekmek")).thenReturn(new OrderBook("Ekmek"));
+
+        RedisMarketFanout sender = node();
+        MarketUpdatePublisher publisher = new MarketUpdatePublisher(messagingTemplate, subscriptionTracker,
+                orderBookService, eventLog, node());
+        publisher.joinFanout();
+        long start = eventLog.lastSeq();
+
+        sender.broadcast(List.of(buy("Ekmek")));
+
+        verify(messagingTemplate, timeout(WAIT_MS)).convertAndSend(eq(MarketUpdatePublisher.MARKET_TOPIC),
+                any(Object.class));
+        verify(messagingTemplate, timeout(WAIT_MS)).convertAndSend(eq(MarketUpdatePublisher.itemTopic("Ekmek")),
+                any(Object.class));
+        verify(messagingTemplate, timeout(WAIT_MS)).convertAndSend(eq(MarketUpdatePublisher.SUMMARY_TOPIC),
+                any(Object.class));
+        verify(orderBookService).markStale("Ekmek");
+        // Numbered into this node's log, so its clients can resync past it
+        assertEquals(1, eventLog.since(start, "Ekmek").orElseThrow().updates().size());
+    }
+
+    @Test
+    void listingsAndSalesGetTheirOwnDestinations() {
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        MarketSubscriptionTracker subscriptionTracker = mock(MarketSubscriptionTracker.class);
+        OrderBookService orderBookService = mock(OrderBookService.class);
+        when(subscriptionTracker.hasSubscribers(anyString())).thenReturn(true);
+        when(orderBookService.book(anyString())).thenReturn(new OrderBook("Ekmek"));
+
+        RedisMarketFanout sender = node();
+        MarketUpdatePublisher publisher = new MarketUpdatePublisher(messagingTemplate, subscriptionTracker,
+                orderBookService, new MarketEventLog(100), node());
+        publisher.joinFanout();
+
+        MarketUpdateDto listed = MarketUpdateDto.builder().type("LIST").id(UUID.randomUUID()).itemName("Elma")
+                .quantity(3).price(BigDecimal.ONE).sellerName("other").build();
+        sender.broadcast(List.of(buy("Ekmek"), listed));
+
+        verify(messagingTemplate, timeout(WAIT_MS)).convertAndSend(eq(MarketUpdatePublisher.LISTINGS_TOPIC),
+                argThat((Object payload) -> payload instanceof List<?> updates && updates.size() == 1
+                        && ((MarketUpdateDto) updates.get(0)).getType().equals("LIST")));
+        verify(messagingTemplate, timeout(WAIT_MS)).convertAndSendToUser(eq("seller"),
+                eq(MarketUpdatePublisher.SALES_QUEUE), argThat((Object payload) -> payload instanceof List<?> sales
+                        && sales.size() == 1 && ((MarketUpdateDto) sales.get(0)).getType().equals("BUY")));
+        verify(messagingTemplate, never()).convertAndSendToUser(eq("other"), anyString(), any(Object.class));
+    }
+
+    @Test
+    void localFanoutDeliversNothing() {
+        LocalMarketFanout fanout = new LocalMarketFanout();
+        SimpMessagingTemplate messagingTemplate = mock(SimpMessagingTemplate.class);
+        MarketEventLog eventLog = new MarketEventLog(100);
+        MarketUpdatePublisher publisher = new MarketUpdatePublisher(messagingTemplate,
+                mock(MarketSubscriptionTracker.class), mock(OrderBookService.class), eventLog, fanout);
+        publisher.joinFanout();
+        long start = eventLog.lastSeq();
+
+        fanout.broadcast(List.of(buy("Ekmek")));
+
+        verify(messagingTemplate, never()).convertAndSend(anyString(), any(Object.class));
+        assertEquals(start, eventLog.lastSeq());
+    }
+
+    private RedisMarketFanout node() {
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        RedisMarketFanout node = new RedisMarketFanout(redisTemplate, connectionFactory, objectMapper);
+        node.subscribe();
+        nodes.add(node);
+        return node;
+    }
+
+    private static MarketUpdateDto buy(String itemName) {
+        return MarketUpdateDto.builder().type("BUY").id(UUID.randomUUID()).itemName(itemName).quantity(5)
+                .price(new BigDecimal("1.50")).totalPrice(new BigDecimal("7.50")).sellerName("seller").build();
+    }
+}
@@ -0,0 +1,157 @@
+package io.vestoria.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import io.vestoria.enums.ItemTier;
+import io.vestoria.enums.ItemUnit;
+import io.vestoria.exception.BusinessRuleException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+import org.junit.jupiter.api.Test;
+
+class OrderBookTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+    private final OrderBook book = new OrderBook("Ekmek");
+    private final UUID seller = UUID.randomUUID();
+    private final UUID buyer = UUID.randomUUID();
+
+    @Test
+    void asksAreKeptInPriceTimeOrder() {
+        OrderBook.Ask late = ask(seller, "2.00", 5, T0.plusMinutes(1));
+        OrderBook.Ask cheap = ask(seller, "1.50", 5, T0.plusMinutes(2));
+        OrderBook.Ask early = ask(seller, "2.00", 5, T0);
+        book.upsert(late);
+        book.upsert(cheap);
+        book.upsert(early);
+
+        assertEquals(List.of(cheap.id(), early.id(), late.id()), book.asks().stream().map(OrderBook.Ask::id).toList());
+        assertEquals(cheap.id(), book.bestAsk().orElseThrow().id());
+    }
+
+    @Test
+    void bidsAreKeptHighestPriceFirst() {
+        OrderBook.Bid low = bid(buyer, "1.00", 5, T0);
+        OrderBook.Bid late = bid(buyer, "3.00", 5, T0.plusMinutes(1));
+        OrderBook.Bid early = bid(buyer, "3.00", 5, T0);
+        book.upsertBid(low);
+        book.upsertBid(late);
+        book.upsertBid(early);
+
+        assertEquals(List.of(early.id(), late.id(), low.id()), book.bids().stream().map(OrderBook.Bid::id).toList());
+    }
+
+    @Test
+    void reserveReducesAndFinallyRemovesAnAsk() {
+        OrderBook.Ask ask = ask(seller, "2.00", 10, T0);
+        book.upsert(ask);
+
+        assertEquals(10, book.reserve(ask.id(), 4).quantity());
+        assertEquals(6, book.find(ask.id()).orElseThrow().quantity());
+
+        book.reserve(ask.id(), 6);
+        assertTrue(book.find(ask.id()).isEmpty());
+        assertThrows(BusinessRuleException.class, () -> book.reserve(ask.id(), 1));
+    }
+
+    @Test
+    void reserveRejectsMoreThanIsListed() {
+        OrderBook.Ask ask = ask(seller, "2.00", 3, T0);
+        book.upsert(ask);
+
+        assertThrows(BusinessRuleException.class, () -> book.reserve(ask.id(), 4));
+        assertEquals(3, book.find(ask.id()).orElseThrow().quantity());
+    }
+
+    @Test
+    void unlimitedAsksAreNeverDepleted() {
+        OrderBook.Ask ask = new OrderBook.Ask(UUID.randomUUID(), UUID.randomUUID(), "Ekmek", seller, "vestoria",
+                new BigDecimal("2.00"), 100, BigDecimal.ONE, ItemUnit.PIECE, ItemTier.LOW, null, T0, true);
+        book.upsert(ask);
+
+        book.reserve(ask.id(), 100);
+        book.addQuantity(ask.id(), -50);
+
+        assertEquals(100, book.find(ask.id()).orElseThrow().quantity());
+    }
+
+    @Test
+    void takeAsksFillsCheapestFirstUpToTheLimitPrice() {
+        OrderBook.Ask cheap = ask(seller, "1.00", 3, T0);
+        OrderBook.Ask mid = ask(seller, "2.00", 3, T0);
+        OrderBook.Ask dear = ask(seller, "5.00", 3, T0);
+        book.upsert(dear);
+        book.upsert(mid);
+        book.upsert(cheap);
+
+        List<OrderBook.Fill<OrderBook.Ask>> fills = book.takeAsks(new BigDecimal("2.00"), null, buyer, 5);
+
+        assertEquals(List.of(cheap.id(), mid.id()), fills.stream().map(f -> f.order().id()).toList());
+        assertEquals(List.of(3, 2), fills.stream().map(OrderBook.Fill::quantity).toList());
+        assertEquals(1, book.find(mid.id()).orElseThrow().quantity());
+        assertEquals(3, book.find(dear.id()).orElseThrow().quantity());
+    }
+
+    @Test
+    void takeAsksSkipsOwnAndLowQualityAsks() {
+        OrderBook.Ask own = ask(buyer, "1.00", 3, T0);
+        OrderBook.Ask poor = new OrderBook.Ask(UUID.randomUUID(), UUID.randomUUID(), "Ekmek", seller, "seller",
+                new BigDecimal("1.00"), 3, new BigDecimal("0.20"), ItemUnit.PIECE, ItemTier.LOW, null, T0, false);
+        OrderBook.Ask good = ask(seller, "1.50", 3, T0);
+        book.upsert(own);
+        book.upsert(poor);
+        book.upsert(good);
+
+        List<OrderBook.Fill<OrderBook.Ask>> fills = book.takeAsks(new BigDecimal("2.00"), new BigDecimal("0.50"),
+                buyer, 10);
+
+        assertEquals(List.of(good.id()), fills.stream().map(f -> f.order().id()).toList());
+        assertEquals(3, book.find(own.id()).orElseThrow().quantity());
+        assertEquals(3, book.find(poor.id()).orElseThrow().quantity());
+    }
+
+    @Test
+    void takeBidsFillsHighestFirstDownToTheAskPrice() {
+        OrderBook.Bid high = bid(buyer, "3.00", 4, T0);
+        OrderBook.Bid mid = bid(buyer, "2.00", 4, T0);
+        OrderBook.Bid low = bid(buyer, "1.00", 4, T0);
+        book.upsertBid(low);
+        book.upsertBid(mid);
+        book.upsertBid(high);
+
+        List<OrderBook.Fill<OrderBook.Bid>> fills = book.takeBids(new BigDecimal("2.00"), BigDecimal.ONE, seller, 6);
+
+        assertEquals(List.of(high.id(), mid.id()), fills.stream().map(f -> f.order().id()).toList());
+        assertEquals(List.of(4, 2), fills.stream().map(OrderBook.Fill::quantity).toList());
+        assertEquals(List.of(mid.id(), low.id()), book.bids().stream().map(OrderBook.Bid::id).toList());
+        assertEquals(2, book.bestBid().orElseThrow().quantity());
+    }
+
+    @Test
+    void replaceSwapsBothSides() {
+        book.upsert(ask(seller, "1.00", 3, T0));
+        book.upsertBid(bid(buyer, "0.50", 3, T0));
+        OrderBook.Ask ask = ask(seller, "4.00", 1, T0);
+
+        book.replace(List.of(ask), List.of());
+
+        assertEquals(List.of(ask), book.asks());
+        assertTrue(book.bids().isEmpty());
+        assertTrue(book.bestBid().isEmpty());
+    }
+
+    private static OrderBook.Ask ask(UUID sellerId, String price, int quantity, LocalDateTime listedAt) {
+        return new OrderBook.Ask(UUID.randomUUID(), UUID.randomUUID(), "Ekmek", sellerId, "seller",
+                new BigDecimal(price), quantity, BigDecimal.ONE, ItemUnit.PIECE, ItemTier.LOW, null, listedAt, false);
+    }
+
+    private static OrderBook.Bid bid(UUID buyerId, String maxPrice, int quantity, LocalDateTime placedAt) {
+        return new OrderBook.Bid(UUID.randomUUID(), buyerId, "buyer", new BigDecimal(maxPrice), quantity, null,
+                placedAt);
+    }
+}
@@ -0,0 +1,358 @@
+package io.vestoria.simulation;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.vestoria.EmbeddedPostgresConfiguration;
+import io.vestoria.constant.Constants;
+import io.vestoria.dto.MarketSnapshotDto;
+import io.vestoria.dto.request.BuyItemRequestDto;
+import io.vestoria.dto.request.ListItemRequestDto;
+import io.vestoria.dto.request.RegisterRequestDto;
+import io.vestoria.dto.response.CursorPageDto;
+import io.vestoria.dto.response.MarketResponseDto;
+import io.vestoria.entity.BuildingEntity;
+import io.vestoria.entity.ItemEntity;
+import io.vestoria.enums.BuildingSubType;
+import io.vestoria.enums.BuildingTier;
+import io.vestoria.enums.BuildingType;
+import io.vestoria.enums.LedgerReason;
+import io.vestoria.enums.SystemAccount;
+import io.vestoria.repository.BuildingRepository;
+import io.vestoria.repository.ItemRepository;
+import io.vestoria.repository.UserRepository;
+import io.vestoria.service.AuthService;
+import io.vestoria.service.BotService;
+import io.vestoria.service.BuildingService;
+import io.vestoria.service.InventoryService;
+import io.vestoria.service.LedgerAccount;
+import io.vestoria.service.LedgerReconciliationService;
+import io.vestoria.service.LedgerService;
+import io.vestoria.service.MarketService;
+import io.vestoria.service.PriceOracleService;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Headless economy simulation and benchmark. Synthetic players drive the real
+ * service layer against an embedded PostgreSQL: each owns a garden and a
+ * greengrocer, and every round they produce, collect, withdraw, list half of
+ * the harvest, stock their shop with the rest and buy from other players.
+ * Shops are then settled against one market snapshot, as the settlement job
+ * does. Production timers are fast-forwarded instead of waited for.
+ * <p>
+ * Logs latency per operation and, per round, the players' money supply, NPC
+ * shop revenue and price drift. Fails if the ledger does not reconcile or an
+ * operation fails more often than it may: buys race other players for the
+ * same listings, everything else must always succeed.
+ * <p>
+ * {@code mvn test -Psimulation -Dsimulation.players=50 -Dsimulation.rounds=20 -Dsimulation.threads=16}
+ * (also {@code simulation.seed}, {@code simulation.grant}, {@code simulation.pool-size})
+ */
+@Tag("simulation")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {"spring.cache.type=simple",
+        "spring.cache.cache-names=", "spring.jpa.show-sql=false",
+        "spring.datasource.hikari.maximum-pool-size=${simulation.pool-size:20}",
+        "vestoria.random.seed=${simulation.seed:42}", "vestoria.prices.refresh-ms=3600000",
+        "vestoria.settlement.enabled=false"})
+@Import(EmbeddedPostgresConfiguration.class)
+@Slf4j
+class EconomySimulationTest {
+
+    private static final String PASSWORD = "Sim-pass1!";
+    // A listing seen while browsing may be sold out by the time the buy lands
+    private static final Map<String, Double> MAX_FAILURE_RATES = Map.of("buy", 0.25);
+    private static final List<String> PRODUCTS = Constants.GARDEN_ITEMS.stream()
+            .filter(Constants.GREENGROCER_ITEMS::contains).toList();
+
+    @Value("${simulation.players:20}")
+    private int playerCount;
+
+    @Value("${simulation.rounds:10}")
+    private int rounds;
+
+    @Value("${simulation.threads:8}")
+    private int threads;
+
+    @Value("${simulation.seed:42}")
+    private long seed;
+
+    // Starting balance alone does not cover a garden and a shop
+    @Value("${simulation.grant:40000}")
+    private BigDecimal grant;
+
+    @Autowired
+    private AuthService authService;
+    @Autowired
+    private BuildingService buildingService;
+    @Autowired
+    private InventoryService inventoryService;
+    @Autowired
+    private MarketService marketService;
+    @Autowired
+    private BotService botService;
+    @Autowired
+    private LedgerService ledgerService;
+    @Autowired
+    private LedgerReconciliationService ledgerReconciliationService;
+    @Autowired
+    private PriceOracleService priceOracleService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BuildingRepository buildingRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final OperationStats stats = new OperationStats();
+
+    @Test
+    void simulateEconomy() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            long started = System.nanoTime();
+            SplittableRandom root = new SplittableRandom(seed);
+            List<Callable<Player>> joins = new ArrayList<>();
+            for (int i = 0; i < playerCount; i++) {
+                int index = i;
+                SplittableRandom random = root.split();
+                joins.add(() -> join(index, random));
+            }
+            List<Player> players = runAll(pool, joins).stream().filter(Objects::nonNull).toList();
+
+            priceOracleService.refresh();
+            Map<String, BigDecimal> startPrices = priceOracleService.getSnapshot().getPrices();
+            BigDecimal startSupply = moneySupply(players);
+            log.info("Simulating {} players for {} rounds on {} threads (seed {})", players.size(), rounds, threads,
+                    seed);
+            log.info(String.format("%5s %16s %8s %14s %8s %11s", "round", "money supply", "change", "shop revenue",
+                    "trades", "price index"));
+
+            for (int round = 1; round <= rounds; round++) {
+                LocalDateTime roundStart = LocalDateTime.now();
+                runAll(pool, players.stream().<Callable<Void>>map(player -> () -> {
+                    play(player);
+                    return null;
+                }).toList());
+
+                // One snapshot for every shop of the round, as ShopSettlementService does
+                MarketSnapshotDto market = marketService.takeMarketSnapshot();
+                runAll(pool, players.stream().filter(player -> player.selling).<Callable<Void>>map(player -> () -> {
+                    stats.run("shopSales", () -> botService.processShopSales(player.shopId, market));
+                    player.selling = false;
+                    return null;
+                }).toList());
+
+                priceOracleService.refresh();
+                BigDecimal supply = moneySupply(players);
+                log.info(String.format("%5d %16s %7.2f%% %14s %8d %11.4f", round, supply, change(startSupply, supply),
+                        shopRevenue(players), trades(roundStart),
+                        priceIndex(startPrices, priceOracleService.getSnapshot().getPrices())));
+            }
+            long elapsed = System.nanoTime() - started;
+
+            Map<String, BigDecimal> endPrices = priceOracleService.getSnapshot().getPrices();
+            log.info("Price drift of the produced items");
+            for (String product : PRODUCTS) {
+                BigDecimal from = startPrices.get(product);
+                BigDecimal to = endPrices.get(product);
+                if (from != null && to != null) {
+                    log.info(String.format("%-12s %10s -> %10s %8.2f%%", product, from, to, change(from, to)));
+                }
+            }
+            log.info(String.format("Operations over %.1f s%n%s", elapsed / 1e9, stats.report(elapsed)));
+
+            assertThat(players).as("players that joined").hasSize(playerCount);
+            stats.failureRates().forEach((operation, rate) -> assertThat(rate)
+                    .as("failure rate of %s (first failure: %s)", operation, stats.firstError(operation))
+                    .isLessThanOrEqualTo(MAX_FAILURE_RATES.getOrDefault(operation, 0.0)));
+
+            ledgerReconciliationService.reconcile();
+            assertThat(meterRegistry.get("ledger.reconciliation.account.mismatches").gauge().value()).isZero();
+            assertThat(meterRegistry.get("ledger.reconciliation.unbalanced.transfers").gauge().value()).isZero();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    private Player join(int index, SplittableRandom random) {
+        String username = String.format("sim%05d", index);
+        RegisterRequestDto registration = new RegisterRequestDto();
+        registration.setUsername(username);
+        registration.setPassword(PASSWORD);
+        registration.setEmail(username + "@simulation.io");
+        if (stats.time("register", () -> authService.register(registration)) == null) {
+            return null;
+        }
+        UUID userId = userRepository.findByUsername(username).orElseThrow().getId();
+        transactionTemplate.executeWithoutResult(status -> ledgerService.transfer(
+                LedgerAccount.system(SystemAccount.GENESIS), LedgerAccount.user(userId), grant,
+                LedgerReason.OPENING_BALANCE, userId));
+
+        BuildingEntity garden = stats.time("build", () -> buildingService.createBuilding(username, "Bahçe",
+                BuildingType.GARDEN, BuildingTier.SMALL, BuildingSubType.GARDEN));
+        BuildingEntity shop = stats.time("build", () -> buildingService.createBuilding(username, "Manav",
+                BuildingType.SHOP, BuildingTier.SMALL, BuildingSubType.GREENGROCER));
+        if (garden == null || shop == null) {
+            return null;
+        }
+        return new Player(username, userId, garden.getId(), shop.getId(),
+                PRODUCTS.get(random.nextInt(PRODUCTS.size())), random);
+    }
+
+    private void play(Player player) {
+        stats.run("produce", () -> buildingService.startProduction(player.gardenId, player.username, player.product));
+        fastForward(player.gardenId);
+        stats.run("collect", () -> buildingService.collectProduction(player.gardenId, player.username));
+
+        for (ItemEntity harvest : itemsIn(player.gardenId)) {
+            stats.run("withdraw", () -> buildingService.withdrawFromBuilding(player.gardenId, player.username,
+                    harvest.getId().toString(), harvest.getQuantity()));
+        }
+
+        // Half of the stock goes to the market, the rest to the shop
+        Map<String, Integer> shopPrices = new HashMap<>();
+        for (ItemEntity stack : itemRepository.findByOwnerIdAndBuildingIsNull(player.userId)) {
+            if (!stack.getName().equals(player.product) || stack.getQuantity() <= 0) {
+                continue;
+            }
+            BigDecimal marketPrice = priceOracleService.getPrice(stack.getName());
+            int listed = stack.getQuantity() / 2;
+            if (listed > 0) {
+                ListItemRequestDto listing = new ListItemRequestDto();
+                listing.setItemId(stack.getId());
+                listing.setQuantity(listed);
+                listing.setPrice(marketPrice.multiply(BigDecimal.valueOf(player.random.nextDouble(0.85, 1.15)))
+                        .setScale(2, RoundingMode.HALF_UP));
+                stats.time("list", () -> marketService.listItem(player.username, stack.getId(), listing));
+            }
+            ItemEntity stocked = stats.time("transfer", () -> inventoryService.transferToBuilding(stack.getId(),
+                    player.shopId, stack.getQuantity() - listed, player.username));
+            if (stocked != null) {
+                shopPrices.put(stocked.getId().toString(),
+                        Math.max(1, marketPrice.setScale(0, RoundingMode.UP).intValue()));
+            }
+        }
+        if (!shopPrices.isEmpty()) {
+            player.selling = stats.run("startSales",
+                    () -> buildingService.startSales(player.shopId, player.username, shopPrices));
+        }
+
+        buy(player);
+    }
+
+    // Mostly from other players; now and then from the NPC market maker
+    private void buy(Player player) {
+        CursorPageDto<MarketResponseDto> page = stats.time("browse",
+                () -> marketService.getActiveListings(null, null, null, 100));
+        if (page == null) {
+            return;
+        }
+        boolean fromNpc = player.random.nextDouble() < 0.2;
+        List<MarketResponseDto> candidates = page.getContent().stream()
+                .filter(listing -> !listing.getSellerUsername().equals(player.username))
+                .filter(listing -> Boolean.TRUE.equals(listing.getUnlimited()) == fromNpc).toList();
+        if (candidates.isEmpty()) {
+            return;
+        }
+        MarketResponseDto listing = candidates.get(player.random.nextInt(candidates.size()));
+        BuyItemRequestDto request = new BuyItemRequestDto();
+        request.setMarketItemId(listing.getId());
+        request.setQuantity(Math.min(listing.getQuantity(), 1 + player.random.nextInt(5)));
+        stats.run("buy", () -> marketService.buyItem(player.username, listing.getId(), request));
+    }
+
+    private void fastForward(UUID buildingId) {
+        transactionTemplate.executeWithoutResult(status -> buildingRepository.findById(buildingId)
+                .filter(building -> building.getProductionEndsAt() != null)
+                .ifPresent(building -> building.setProductionEndsAt(LocalDateTime.now().minusSeconds(1))));
+    }
+
+    private List<ItemEntity> itemsIn(UUID buildingId) {
+        return transactionTemplate.execute(status -> buildingRepository.findById(buildingId).orElseThrow().getItems()
+                .stream().filter(item -> item.getQuantity() > 0).toList());
+    }
+
+    private BigDecimal moneySupply(List<Player> players) {
+        return jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(amount), 0) FROM ledger_entries WHERE user_id IN (:ids)",
+                Map.of("ids", players.stream().map(player -> player.userId).toList()), BigDecimal.class);
+    }
+
+    private BigDecimal shopRevenue(List<Player> players) {
+        return jdbcTemplate.queryForObject("SELECT COALESCE(SUM(last_revenue), 0) FROM buildings WHERE id IN (:ids)",
+                Map.of("ids", players.stream().map(player -> player.shopId).toList()), BigDecimal.class);
+    }
+
+    private long trades(LocalDateTime since) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM market_transactions WHERE created_time >= :since",
+                Map.of("since", since), Long.class);
+    }
+
+    // Mean ratio of current to starting price over the items priced at the start
+    private static double priceIndex(Map<String, BigDecimal> start, Map<String, BigDecimal> now) {
+        return start.entrySet().stream().filter(entry -> now.containsKey(entry.getKey()))
+                .mapToDouble(entry -> now.get(entry.getKey()).doubleValue() / entry.getValue().doubleValue())
+                .average().orElse(1.0);
+    }
+
+    private static double change(BigDecimal from, BigDecimal to) {
+        return from.signum() == 0 ? 0.0 : (to.doubleValue() / from.doubleValue() - 1.0) * 100.0;
+    }
+
+    private static <T> List<T> runAll(ExecutorService pool, List<Callable<T>> tasks)
+            throws InterruptedException, ExecutionException {
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : pool.invokeAll(tasks)) {
+            results.add(future.get());
+        }
+        return results;
+    }
+
+    private static class Player {
+        private final String username;
+        private final UUID userId;
+        private final UUID gardenId;
+        private final UUID shopId;
+        private final String product;
+        private final SplittableRandom random;
+        private volatile boolean selling;
+
+        Player(String username, UUID userId, UUID gardenId, UUID shopId, String product, SplittableRandom random) {
+            this.username = username;
+            this.userId = userId;
+            this.gardenId = gardenId;
+            this.shopId = shopId;
+            this.product = product;
+            this.random = random;
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package io.vestoria.simulation;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Latency and failure count per simulated operation.
+ */
+class OperationStats {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, Counter> failures = new ConcurrentHashMap<>();
+    private final Map<String, String> firstErrors = new ConcurrentHashMap<>();
+
+    /**
+     * Runs the operation and records its latency; a failure is counted and
+     * yields {@code null}, as a rejected request would for a player.
+     */
+    <T> T time(String operation, Supplier<T> action) {
+        Timer timer = timers.computeIfAbsent(operation, name -> Timer.builder("simulation." + name)
+                .publishPercentiles(0.5, 0.99).percentilePrecision(2).register(registry));
+        long start = System.nanoTime();
+        try {
+            return action.get();
+        } catch (RuntimeException e) {
+            failures.computeIfAbsent(operation, name -> registry.counter("simulation." + name + ".failures"))
+                    .increment();
+            firstErrors.putIfAbsent(operation, e.getClass().getSimpleName() + ": " + e.getMessage());
+            return null;
+        } finally {
+            timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * As {@link #time(String, Supplier)}; returns whether the operation succeeded.
+     */
+    boolean run(String operation, Runnable action) {
+        return time(operation, () -> {
+            action.run();
+            return Boolean.TRUE;
+        }) != null;
+    }
+
+    /**
+     * Share of calls of each operation that failed, for every operation run.
+     */
+    Map<String, Double> failureRates() {
+        Map<String, Double> rates = new TreeMap<>();
+        timers.forEach((operation, timer) -> {
+            Counter failed = failures.get(operation);
+            rates.put(operation, failed == null || timer.count() == 0 ? 0.0 : failed.count() / timer.count());
+        });
+        return rates;
+    }
+
+    String firstError(String operation) {
+        return firstErrors.get(operation);
+    }
+
+    String report(long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        StringBuilder report = new StringBuilder(String.format("%-14s %8s %8s %10s %10s %10s%n", "operation", "count",
+                "failed", "ops/s", "p50 ms", "p99 ms"));
+        long total = 0;
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            Timer timer = entry.getValue();
+            Counter failed = failures.get(entry.getKey());
+            report.append(String.format("%-14s %8d %8d %10.1f %10.2f %10.2f%n", entry.getKey(), timer.count(),
+                    failed != null ? (long) failed.count() : 0L, timer.count() / seconds, percentile(timer, 0.5),
+                    percentile(timer, 0.99)));
+            total += timer.count();
+        }
+        report.append(String.format("%-14s %8d %8s %10.1f%n", "total", total, "", total / seconds));
+        new TreeMap<>(firstErrors).forEach((operation, error) -> report
+                .append(String.format("first %s failure: %s%n", operation, error)));
+        return report.toString();
+    }
+
+    private static double percentile(Timer timer, double percentile) {
+        for (ValueAtPercentile value : timer.takeSnapshot().percentileValues()) {
+            if (value.percentile() == percentile) {
+                return value.value(TimeUnit.MILLISECONDS);
+            }
+        }
+        return Double.NaN;
+    }
+}